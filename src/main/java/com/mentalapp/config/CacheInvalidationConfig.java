@@ -0,0 +1,28 @@
+package com.mentalapp.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mentalapp.service.invalidation.InvalidationTransport;
+import com.mentalapp.service.invalidation.LoopbackInvalidationTransport;
+import com.mentalapp.service.invalidation.PostgresInvalidationTransport;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Picks the transport the cache invalidation bus sends and receives on
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "mentalapp.cache.invalidation", name = "enabled", havingValue = "true")
+public class CacheInvalidationConfig {
+
+    @Bean
+    public InvalidationTransport invalidationTransport(CacheInvalidationProperties properties,
+            JdbcTemplate jdbcTemplate, DataSourceProperties dataSourceProperties, ObjectMapper objectMapper) {
+        if (properties.getTransport() == CacheInvalidationProperties.Transport.LOOPBACK) {
+            return new LoopbackInvalidationTransport();
+        }
+        return new PostgresInvalidationTransport(jdbcTemplate, dataSourceProperties, objectMapper, properties);
+    }
+}
@@ -0,0 +1,52 @@
+package com.mentalapp.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings for propagating cache invalidations to the other API instances
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "mentalapp.cache.invalidation")
+public class CacheInvalidationProperties {
+
+    public enum Transport {
+        /** In-process delivery only, for tests and single-node setups */
+        LOOPBACK,
+        /** Postgres LISTEN/NOTIFY on {@link #channel} */
+        POSTGRES
+    }
+
+    private boolean enabled = false;
+
+    private Transport transport = Transport.POSTGRES;
+
+    /**
+     * Identifies this instance in published batches so it can skip its own; random when empty
+     */
+    private String nodeId;
+
+    /**
+     * Postgres notification channel, a plain lower-case identifier
+     */
+    private String channel = "mentalapp_cache_invalidation";
+
+    /**
+     * How long invalidations are collected and coalesced before being sent
+     */
+    private long flushIntervalMs = 50;
+
+    /**
+     * Pending keys that trigger an early flush
+     */
+    private int maxBatchSize = 500;
+
+    /**
+     * Wait per poll of the listening connection
+     */
+    private int listenPollMs = 500;
+
+    private long reconnectBackoffMs = 5000;
+}
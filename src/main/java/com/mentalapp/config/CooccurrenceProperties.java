@@ -0,0 +1,19 @@
+package com.mentalapp.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings for the in-memory per-user emotion co-occurrence matrices
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "mentalapp.analytics.cooccurrence")
+public class CooccurrenceProperties {
+
+    /**
+     * Upper bound on users with a loaded matrix; all are dropped (and rebuilt on demand) when exceeded
+     */
+    private int maxUsers = 2000;
+}
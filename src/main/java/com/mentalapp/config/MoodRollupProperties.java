@@ -0,0 +1,26 @@
+package com.mentalapp.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings for rebuilding the daily mood rollups from existing entries
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "mentalapp.rollups")
+public class MoodRollupProperties {
+
+    /**
+     * Rebuild every user's rollups in the background once the application is ready
+     */
+    private boolean backfillOnStartup = false;
+
+    private int backfillThreads = 4;
+
+    /**
+     * Users rebuilt per transaction
+     */
+    private int backfillChunkSize = 200;
+}
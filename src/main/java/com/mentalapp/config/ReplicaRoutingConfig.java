@@ -0,0 +1,82 @@
+package com.mentalapp.config;
+
+import com.mentalapp.service.ReadYourWritesTracker;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the single datasource with the primary plus read replicas, routed
+ * per transaction by {@link ReplicaRoutingDataSource}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "mentalapp.datasource.replicas", name = "enabled", havingValue = "true")
+@Slf4j
+public class ReplicaRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+            DataSourceProperties dataSourceProperties, ReplicaRoutingProperties properties,
+            ReadYourWritesTracker readYourWritesTracker) {
+        List<HikariDataSource> replicas = new ArrayList<>();
+        List<ReplicaRoutingProperties.Node> nodes = properties.getNodes();
+        for (int i = 0; i < nodes.size(); i++) {
+            ReplicaRoutingProperties.Node node = nodes.get(i);
+            // Not started until first used, so a replica that is down does not fail startup
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + (i + 1));
+            replica.setJdbcUrl(node.getUrl());
+            replica.setDriverClassName(dataSourceProperties.determineDriverClassName());
+            replica.setUsername(StringUtils.hasText(node.getUsername())
+                    ? node.getUsername()
+                    : dataSourceProperties.determineUsername());
+            replica.setPassword(StringUtils.hasText(node.getUsername())
+                    ? node.getPassword()
+                    : dataSourceProperties.determinePassword());
+            replica.setMaximumPoolSize(node.getMaxPoolSize());
+            replica.setConnectionTimeout(properties.getConnectionTimeoutMs());
+            replica.setReadOnly(true);
+            replicas.add(replica);
+        }
+        log.info("Routing read-only transactions across {} replica(s) by {}", replicas.size(),
+                properties.getSelection());
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, properties, readYourWritesTracker);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    /**
+     * Hibernate otherwise holds one connection for the whole request under
+     * open-in-view, so every transaction after the first would reuse that
+     * first routing decision
+     */
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionsAfterTransaction() {
+        return hibernateProperties -> hibernateProperties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+}
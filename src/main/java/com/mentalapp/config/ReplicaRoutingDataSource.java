@@ -0,0 +1,183 @@
+package com.mentalapp.config;
+
+import com.mentalapp.service.ReadYourWritesTracker;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends connections for read-only transactions to a healthy replica and
+ * everything else to the primary.
+ *
+ * The decision is made when a connection is requested, so this must sit
+ * behind a LazyConnectionDataSourceProxy: only then is the transaction's
+ * read-only flag known by the time the first statement needs a connection.
+ * Users who wrote within the read-your-writes window stay on the primary.
+ * Replicas are probed in the background and skipped while down; a replica
+ * that fails to hand out a connection is marked down and the read falls back
+ * to the primary.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    static final String PRIMARY = "primary";
+
+    private final DataSource primary;
+    private final Map<String, Replica> replicas = new LinkedHashMap<>();
+    private final ReplicaRoutingProperties properties;
+    private final ReadYourWritesTracker readYourWritesTracker;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final ScheduledExecutorService healthChecker;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<HikariDataSource> replicaDataSources,
+            ReplicaRoutingProperties properties, ReadYourWritesTracker readYourWritesTracker) {
+        this.primary = primary;
+        this.properties = properties;
+        this.readYourWritesTracker = readYourWritesTracker;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (HikariDataSource dataSource : replicaDataSources) {
+            Replica replica = new Replica(dataSource.getPoolName(), dataSource);
+            replicas.put(replica.name, replica);
+            targets.put(replica.name, dataSource);
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+
+        this.healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+        // Replicas start out down and are used once the first probe succeeds
+        healthChecker.scheduleWithFixedDelay(this::checkHealth, 0, properties.getHealthCheckIntervalMs(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                || readYourWritesTracker.isCurrentUserPinned()) {
+            return PRIMARY;
+        }
+        Replica replica = select();
+        return replica != null ? replica.name : PRIMARY;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Replica replica = replicas.get(determineCurrentLookupKey());
+        if (replica == null) {
+            return primary.getConnection();
+        }
+        try {
+            return replica.dataSource.getConnection();
+        } catch (SQLException e) {
+            markDown(replica, e);
+            return primary.getConnection();
+        }
+    }
+
+    /**
+     * Names of the replicas currently taking reads
+     */
+    public List<String> getHealthyReplicas() {
+        List<String> healthy = new ArrayList<>();
+        replicas.values().forEach(replica -> {
+            if (replica.healthy) {
+                healthy.add(replica.name);
+            }
+        });
+        return healthy;
+    }
+
+    @Override
+    public void close() {
+        healthChecker.shutdownNow();
+        replicas.values().forEach(replica -> replica.dataSource.close());
+    }
+
+    private Replica select() {
+        List<Replica> healthy = new ArrayList<>(replicas.size());
+        for (Replica replica : replicas.values()) {
+            if (replica.healthy) {
+                healthy.add(replica);
+            }
+        }
+        if (healthy.isEmpty()) {
+            return null;
+        }
+        if (properties.getSelection() == ReplicaRoutingProperties.Selection.LEAST_CONNECTIONS) {
+            Replica least = healthy.get(0);
+            for (Replica replica : healthy) {
+                if (replica.activeConnections() < least.activeConnections()) {
+                    least = replica;
+                }
+            }
+            return least;
+        }
+        return healthy.get(Math.floorMod(nextReplica.getAndIncrement(), healthy.size()));
+    }
+
+    private void checkHealth() {
+        int timeoutSeconds = (int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(properties.getConnectionTimeoutMs()));
+        for (Replica replica : replicas.values()) {
+            try (Connection connection = replica.dataSource.getConnection()) {
+                if (!connection.isValid(timeoutSeconds)) {
+                    throw new SQLException("Connection did not validate within " + timeoutSeconds + " s");
+                }
+                if (!replica.healthy) {
+                    log.info("Replica {} is up, routing reads to it", replica.name);
+                    replica.healthy = true;
+                }
+            } catch (SQLException | RuntimeException e) {
+                markDown(replica, e);
+            }
+        }
+    }
+
+    private void markDown(Replica replica, Exception cause) {
+        if (replica.healthy) {
+            log.warn("Replica {} is down, reads fall back to the primary until it recovers", replica.name, cause);
+            replica.healthy = false;
+        }
+    }
+
+    private static final class Replica {
+        private final String name;
+        private final HikariDataSource dataSource;
+        private volatile boolean healthy;
+
+        private Replica(String name, HikariDataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        private int activeConnections() {
+            // The pool only exists after its first connection
+            HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+            return pool != null ? pool.getActiveConnections() : 0;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.mentalapp.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Settings for sending read-only transactions to read replicas
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "mentalapp.datasource.replicas")
+public class ReplicaRoutingProperties {
+
+    public enum Selection {
+        ROUND_ROBIN,
+        /** The healthy replica with the fewest connections in use */
+        LEAST_CONNECTIONS
+    }
+
+    private boolean enabled = false;
+
+    private Selection selection = Selection.ROUND_ROBIN;
+
+    private List<Node> nodes = new ArrayList<>();
+
+    /**
+     * After a user's write commits, their reads stay on the primary this long
+     */
+    private long readYourWritesMs = 5000;
+
+    private long healthCheckIntervalMs = 5000;
+
+    /**
+     * Bound on waiting for a replica connection, in health checks and requests
+     */
+    private long connectionTimeoutMs = 2000;
+
+    @Data
+    public static class Node {
+
+        private String url;
+
+        /**
+         * Defaults to the primary's credentials when empty
+         */
+        private String username;
+
+        private String password;
+
+        private int maxPoolSize = 10;
+    }
+}
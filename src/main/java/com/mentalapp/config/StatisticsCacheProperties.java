@@ -0,0 +1,21 @@
+package com.mentalapp.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings for caching per-user statistics between writes
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "mentalapp.statistics.cache")
+public class StatisticsCacheProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Upper bound on cached users; the whole cache is dropped when exceeded
+     */
+    private int maxUsers = 10000;
+}
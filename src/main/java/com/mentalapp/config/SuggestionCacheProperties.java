@@ -0,0 +1,32 @@
+package com.mentalapp.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings for memoizing suggestion templates per feature combination
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "mentalapp.suggestions.cache")
+public class SuggestionCacheProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Upper bound on cached feature combinations; the whole cache is dropped when exceeded
+     */
+    private int maxEntries = 4096;
+
+    /**
+     * How long an answer stays cached, 0 for as long as the taxonomy and rules are unchanged.
+     * Set this when a model provider is enabled so model answers are refreshed now and then.
+     */
+    private long ttlMs = 0;
+
+    /**
+     * How long a fallback answer (model timed out, circuit open, limiter full) stays cached, 0 to not cache it
+     */
+    private long fallbackTtlMs = 5000;
+}
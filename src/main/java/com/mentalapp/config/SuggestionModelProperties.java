@@ -0,0 +1,44 @@
+package com.mentalapp.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings for the HTTP model-backed suggestion provider
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "mentalapp.suggestions.model")
+public class SuggestionModelProperties {
+
+    /**
+     * Ask the model first and fall back to the rule table; rules only when false
+     */
+    private boolean enabled = false;
+
+    private String endpoint = "http://localhost:8089/v1/suggestions";
+
+    private String apiKey;
+
+    private long connectTimeoutMs = 500;
+
+    /**
+     * Hard deadline for one suggestion call, hedged attempt included
+     */
+    private long deadlineMs = 1500;
+
+    /**
+     * Send a second request if the first has not answered after this long
+     */
+    private long hedgeDelayMs = 400;
+
+    /**
+     * Calls in flight beyond this go straight to the fallback
+     */
+    private int maxConcurrency = 16;
+
+    private int circuitFailureThreshold = 5;
+
+    private long circuitOpenMs = 30000;
+}
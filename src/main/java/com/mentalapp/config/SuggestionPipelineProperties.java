@@ -0,0 +1,35 @@
+package com.mentalapp.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings for generating mood entry suggestions after commit on a worker pool
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "mentalapp.suggestions.async")
+public class SuggestionPipelineProperties {
+
+    /**
+     * Return the mood entry before its suggestions exist and generate them in the background
+     */
+    private boolean enabled = false;
+
+    private int poolSize = 4;
+
+    /**
+     * Pending generations beyond this are run on the submitting thread (back-pressure)
+     */
+    private int queueCapacity = 500;
+
+    private int maxAttempts = 3;
+
+    /**
+     * Delay before the first retry, doubled for every further attempt
+     */
+    private long retryBackoffMs = 2000;
+
+    private int deadLetterCapacity = 1000;
+}
@@ -0,0 +1,42 @@
+package com.mentalapp.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mentalapp.service.EmotionService;
+import com.mentalapp.service.suggestion.CachingSuggestionProvider;
+import com.mentalapp.service.suggestion.HttpModelSuggestionProvider;
+import com.mentalapp.service.suggestion.RuleBasedSuggestionProvider;
+import com.mentalapp.service.suggestion.SuggestionProvider;
+import com.mentalapp.service.suggestion.SuggestionRuleEngine;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * Picks the suggestion provider used for mood entries: the model with the
+ * rule table as fallback when the model is enabled, the rule table otherwise,
+ * memoized per feature combination when the suggestion cache is enabled.
+ */
+@Configuration
+@Slf4j
+public class SuggestionProviderConfig {
+
+    @Bean
+    @Primary
+    public SuggestionProvider suggestionProvider(SuggestionModelProperties modelProperties,
+            SuggestionCacheProperties cacheProperties, RuleBasedSuggestionProvider ruleBasedSuggestionProvider,
+            SuggestionRuleEngine suggestionRuleEngine, EmotionService emotionService,
+            ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        SuggestionProvider provider = ruleBasedSuggestionProvider;
+        if (modelProperties.isEnabled()) {
+            log.info("Using model suggestions from {} with rule fallback", modelProperties.getEndpoint());
+            provider = new HttpModelSuggestionProvider(modelProperties, ruleBasedSuggestionProvider, objectMapper);
+        }
+        if (!cacheProperties.isEnabled()) {
+            return provider;
+        }
+        return new CachingSuggestionProvider(provider, emotionService, suggestionRuleEngine, cacheProperties,
+                meterRegistry);
+    }
+}
@@ -0,0 +1,21 @@
+package com.mentalapp.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Where the suggestion rule set is loaded from and how often it is checked for changes
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "mentalapp.suggestions.rules")
+public class SuggestionRuleProperties {
+
+    /**
+     * Spring resource location of the rule file; use a file: location to enable hot reload
+     */
+    private String location = "classpath:suggestion-rules.json";
+
+    private long reloadIntervalMs = 30000;
+}
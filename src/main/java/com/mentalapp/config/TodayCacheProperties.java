@@ -0,0 +1,26 @@
+package com.mentalapp.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings for the per-user cache of today's entries and activities
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "mentalapp.today.cache")
+public class TodayCacheProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Upper bound on cached users; expired users are dropped first, then the whole cache
+     */
+    private int maxUsers = 10000;
+
+    /**
+     * Reload a user's day after this long even without writes, 0 for never
+     */
+    private long ttlMs = 300000;
+}
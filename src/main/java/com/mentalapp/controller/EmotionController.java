@@ -1,13 +1,20 @@
 package com.mentalapp.controller;
 
-import com.mentalapp.entity.Emotion;
+import com.mentalapp.dto.EmotionResponse;
+import com.mentalapp.service.EmotionPayloadCache;
 import com.mentalapp.service.EmotionService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 
 @RestController
@@ -17,15 +24,20 @@ import java.util.Optional;
 @CrossOrigin(origins = "*")
 public class EmotionController {
     
+    private static final CacheControl TAXONOMY_CACHE_CONTROL = CacheControl.maxAge(Duration.ofMinutes(10))
+            .cachePublic()
+            .mustRevalidate();
+    
     private final EmotionService emotionService;
+    private final EmotionPayloadCache emotionPayloadCache;
     
     /**
      * Get all emotions
      */
     @GetMapping
-    public ResponseEntity<List<Emotion>> getAllEmotions() {
+    public ResponseEntity<List<EmotionResponse>> getAllEmotions() {
         log.info("Fetching all emotions");
-        List<Emotion> emotions = emotionService.getAllEmotions();
+        List<EmotionResponse> emotions = emotionService.getAllEmotions();
         return ResponseEntity.ok(emotions);
     }
     
@@ -33,9 +45,9 @@ public class EmotionController {
      * Get emotion by key
      */
     @GetMapping("/{key}")
-    public ResponseEntity<Emotion> getEmotionByKey(@PathVariable String key) {
+    public ResponseEntity<EmotionResponse> getEmotionByKey(@PathVariable String key) {
         log.info("Fetching emotion with key: {}", key);
-        Optional<Emotion> emotion = emotionService.getEmotionByKey(key);
+        Optional<EmotionResponse> emotion = emotionService.getEmotionByKey(key);
         return emotion.map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -44,9 +56,9 @@ public class EmotionController {
      * Get root emotions (main categories for dropdown)
      */
     @GetMapping("/root")
-    public ResponseEntity<List<Emotion>> getRootEmotions() {
+    public ResponseEntity<List<EmotionResponse>> getRootEmotions() {
         log.info("Fetching root emotions for dropdown");
-        List<Emotion> emotions = emotionService.getRootEmotions();
+        List<EmotionResponse> emotions = emotionService.getRootEmotions();
         return ResponseEntity.ok(emotions);
     }
     
@@ -54,9 +66,9 @@ public class EmotionController {
      * Get emotions by parent key (sub-emotions for dropdown)
      */
     @GetMapping("/parent/{parentKey}")
-    public ResponseEntity<List<Emotion>> getEmotionsByParentKey(@PathVariable String parentKey) {
+    public ResponseEntity<List<EmotionResponse>> getEmotionsByParentKey(@PathVariable String parentKey) {
         log.info("Fetching sub-emotions for parent key: {}", parentKey);
-        List<Emotion> emotions = emotionService.getEmotionsByParentKey(parentKey);
+        List<EmotionResponse> emotions = emotionService.getEmotionsByParentKey(parentKey);
         return ResponseEntity.ok(emotions);
     }
     
@@ -64,19 +76,21 @@ public class EmotionController {
      * Get full emotion wheel taxonomy with hierarchy (for nested dropdowns)
      */
     @GetMapping("/taxonomy")
-    public ResponseEntity<List<Emotion>> getEmotionWheelTaxonomy() {
-        log.info("Fetching emotion wheel taxonomy for nested dropdown");
-        List<Emotion> emotions = emotionService.getEmotionWheelTaxonomy();
-        return ResponseEntity.ok(emotions);
+    public ResponseEntity<byte[]> getEmotionWheelTaxonomy(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        log.debug("Fetching emotion wheel taxonomy for nested dropdown");
+        return servePayload(EmotionPayloadCache.Payload.TAXONOMY, ifNoneMatch, acceptEncoding);
     }
     
     /**
-     * Search emotions by label
+     * Typeahead search over emotion labels and keys
      */
     @GetMapping("/search")
-    public ResponseEntity<List<Emotion>> searchEmotions(@RequestParam String q) {
-        log.info("Searching emotions with query: {}", q);
-        List<Emotion> emotions = emotionService.searchEmotionsByLabel(q);
+    public ResponseEntity<List<EmotionResponse>> searchEmotions(@RequestParam String q,
+            @RequestParam(defaultValue = "20") int limit) {
+        log.debug("Searching emotions with query: {}", q);
+        List<EmotionResponse> emotions = emotionService.searchEmotions(q, limit);
         return ResponseEntity.ok(emotions);
     }
     
@@ -84,19 +98,20 @@ public class EmotionController {
      * Get all emotions formatted for dropdown (both root and children)
      */
     @GetMapping("/dropdown")
-    public ResponseEntity<List<Emotion>> getEmotionsForDropdown() {
-        log.info("Fetching emotions for dropdown");
-        List<Emotion> emotions = emotionService.getAllEmotionsForDropdown();
-        return ResponseEntity.ok(emotions);
+    public ResponseEntity<byte[]> getEmotionsForDropdown(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        log.debug("Fetching emotions for dropdown");
+        return servePayload(EmotionPayloadCache.Payload.DROPDOWN, ifNoneMatch, acceptEncoding);
     }
     
     /**
      * Get emotions for specific dropdown type
      */
     @GetMapping("/dropdown/{type}")
-    public ResponseEntity<List<Emotion>> getEmotionsForDropdownType(@PathVariable String type) {
+    public ResponseEntity<List<EmotionResponse>> getEmotionsForDropdownType(@PathVariable String type) {
         log.info("Fetching emotions for dropdown type: {}", type);
-        List<Emotion> emotions = emotionService.getEmotionsForDropdown(type);
+        List<EmotionResponse> emotions = emotionService.getEmotionsForDropdown(type);
         return ResponseEntity.ok(emotions);
     }
     
@@ -104,9 +119,9 @@ public class EmotionController {
      * Get emotions by category
      */
     @GetMapping("/category/{categoryKey}")
-    public ResponseEntity<List<Emotion>> getEmotionsByCategory(@PathVariable String categoryKey) {
+    public ResponseEntity<List<EmotionResponse>> getEmotionsByCategory(@PathVariable String categoryKey) {
         log.info("Fetching emotions for category: {}", categoryKey);
-        List<Emotion> emotions = emotionService.getEmotionsByCategory(categoryKey);
+        List<EmotionResponse> emotions = emotionService.getEmotionsByCategory(categoryKey);
         return ResponseEntity.ok(emotions);
     }
     
@@ -114,9 +129,9 @@ public class EmotionController {
      * Get sub-emotions only (for two-level dropdown)
      */
     @GetMapping("/sub")
-    public ResponseEntity<List<Emotion>> getSubEmotions() {
+    public ResponseEntity<List<EmotionResponse>> getSubEmotions() {
         log.info("Fetching sub-emotions for two-level dropdown");
-        List<Emotion> emotions = emotionService.getSubEmotions();
+        List<EmotionResponse> emotions = emotionService.getSubEmotions();
         return ResponseEntity.ok(emotions);
     }
     
@@ -124,9 +139,9 @@ public class EmotionController {
      * Get sub-emotions ordered by parent (for grouped dropdown)
      */
     @GetMapping("/sub/grouped")
-    public ResponseEntity<List<Emotion>> getSubEmotionsGrouped() {
+    public ResponseEntity<List<EmotionResponse>> getSubEmotionsGrouped() {
         log.info("Fetching sub-emotions grouped by parent");
-        List<Emotion> emotions = emotionService.getSubEmotionsOrderedByParent();
+        List<EmotionResponse> emotions = emotionService.getSubEmotionsOrderedByParent();
         return ResponseEntity.ok(emotions);
     }
     
@@ -139,8 +154,67 @@ public class EmotionController {
         boolean exists = emotionService.emotionExists(key);
         return ResponseEntity.ok(exists);
     }
-}
-
+    
+    /**
+     * Serve a pre-encoded payload, answering 304 when the client already has it
+     */
+    private ResponseEntity<byte[]> servePayload(EmotionPayloadCache.Payload payload, String ifNoneMatch,
+            String acceptEncoding) {
+        EmotionPayloadCache.EncodedPayload encoded = emotionPayloadCache.get(payload);
+        boolean gzip = acceptsGzip(acceptEncoding);
 
+        if (encoded.matches(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(encoded.etag(gzip))
+                    .cacheControl(TAXONOMY_CACHE_CONTROL)
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
 
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(encoded.etag(gzip))
+                .cacheControl(TAXONOMY_CACHE_CONTROL)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(encoded.body(gzip));
+    }
 
+    /**
+     * Whether an Accept-Encoding header allows gzip. An explicit gzip (or
+     * x-gzip) entry wins over "*", and q=0 means not acceptable.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzipQuality = null;
+        Double anyQuality = null;
+        for (String element : acceptEncoding.split(",")) {
+            String[] parts = element.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            double quality = 1.0;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim().toLowerCase(Locale.ROOT);
+                if (parameter.startsWith("q=")) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzipQuality = gzipQuality == null ? quality : Math.max(gzipQuality, quality);
+            } else if (coding.equals("*")) {
+                anyQuality = quality;
+            }
+        }
+        if (gzipQuality != null) {
+            return gzipQuality > 0;
+        }
+        return anyQuality != null && anyQuality > 0;
+    }
+}
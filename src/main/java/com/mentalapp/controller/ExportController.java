@@ -0,0 +1,39 @@
+package com.mentalapp.controller;
+
+import com.mentalapp.entity.User;
+import com.mentalapp.service.ExportService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+@RequestMapping("/api/export")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*")
+public class ExportController {
+
+    private final ExportService exportService;
+
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> exportHistory(
+            @RequestAttribute("user") User user) {
+
+        log.info("Exporting history for user: {}", user.getId());
+
+        StreamingResponseBody body = out -> exportService.exportUserHistory(user, out);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("mental-app-export-" + user.getId() + ".ndjson")
+                        .build()
+                        .toString())
+                .body(body);
+    }
+}
@@ -2,18 +2,29 @@ package com.mentalapp.controller;
 
 import com.mentalapp.entity.MoodEntry;
 import com.mentalapp.entity.User;
+import com.mentalapp.service.EmotionCooccurrenceMatrix;
 import com.mentalapp.service.MoodEntryService;
+import com.mentalapp.service.PageCursor;
+import com.mentalapp.dto.CursorPage;
+import com.mentalapp.dto.EmotionCooccurrenceResponse;
+import com.mentalapp.dto.MoodEntryBatchRequest;
+import com.mentalapp.dto.MoodEntryBatchResponse;
 import com.mentalapp.dto.MoodEntryCreateRequest;
 import com.mentalapp.dto.MoodEntryUpdateRequest;
 import com.mentalapp.dto.MoodEntryResponse;
+import com.mentalapp.dto.MoodEntrySuggestionsResponse;
+import com.mentalapp.dto.MoodTrendResponse;
+import com.mentalapp.dto.SuggestedActivityResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.format.annotation.DateTimeFormat;
 import jakarta.validation.Valid;
+import java.time.DateTimeException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -25,6 +36,9 @@ import java.util.stream.Collectors;
 @CrossOrigin(origins = "*")
 public class MoodEntryController {
 
+    private static final long MAX_TREND_BUCKETS = 2000;
+    private static final int MAX_EMOTION_PAIRS = 100;
+
     private final MoodEntryService moodEntryService;
 
     @PostMapping
@@ -40,6 +54,17 @@ public class MoodEntryController {
         return ResponseEntity.ok(convertToResponse(savedEntry));
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<MoodEntryBatchResponse> createMoodEntriesBatch(
+            @Valid @RequestBody MoodEntryBatchRequest request,
+            @RequestAttribute("user") User user) {
+
+        log.info("Ingesting {} mood entries for user: {}", request.getEntries().size(), user.getId());
+
+        MoodEntryBatchResponse response = moodEntryService.ingestBatch(request.getEntries(), user);
+        return ResponseEntity.ok(response);
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<MoodEntryResponse> updateMoodEntry(
             @PathVariable Long id,
@@ -75,26 +100,28 @@ public class MoodEntryController {
     }
 
     @GetMapping
-    public ResponseEntity<List<MoodEntryResponse>> getAllMoodEntries(
+    public ResponseEntity<CursorPage<MoodEntryResponse>> getAllMoodEntries(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + PageCursor.DEFAULT_LIMIT) int limit,
             @RequestAttribute("user") User user) {
 
-        List<MoodEntry> entries = moodEntryService.getUserMoodEntries(user);
-        List<MoodEntryResponse> responses = entries.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        PageCursor pageCursor;
+        try {
+            pageCursor = PageCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
 
-        return ResponseEntity.ok(responses);
+        CursorPage<MoodEntryResponse> page = moodEntryService.getUserMoodEntries(user, pageCursor,
+                PageCursor.clampLimit(limit));
+        return ResponseEntity.ok(page);
     }
 
     @GetMapping("/today")
     public ResponseEntity<List<MoodEntryResponse>> getTodayMoodEntries(
             @RequestAttribute("user") User user) {
 
-        List<MoodEntry> entries = moodEntryService.getTodayMoodEntries(user);
-        List<MoodEntryResponse> responses = entries.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
-
+        List<MoodEntryResponse> responses = moodEntryService.getTodayMoodEntries(user);
         return ResponseEntity.ok(responses);
     }
 
@@ -102,11 +129,7 @@ public class MoodEntryController {
     public ResponseEntity<List<MoodEntryResponse>> getTodayEditableMoodEntries(
             @RequestAttribute("user") User user) {
 
-        List<MoodEntry> entries = moodEntryService.getTodayEditableMoodEntries(user);
-        List<MoodEntryResponse> responses = entries.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
-
+        List<MoodEntryResponse> responses = moodEntryService.getTodayEditableMoodEntries(user);
         return ResponseEntity.ok(responses);
     }
 
@@ -115,11 +138,7 @@ public class MoodEntryController {
             @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
             @RequestAttribute("user") User user) {
 
-        List<MoodEntry> entries = moodEntryService.getMoodEntriesByDate(user, date);
-        List<MoodEntryResponse> responses = entries.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
-
+        List<MoodEntryResponse> responses = moodEntryService.getMoodEntriesByDate(user, date);
         return ResponseEntity.ok(responses);
     }
 
@@ -129,14 +148,44 @@ public class MoodEntryController {
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
             @RequestAttribute("user") User user) {
 
-        List<MoodEntry> entries = moodEntryService.getMoodEntriesInRange(user, startDate, endDate);
-        List<MoodEntryResponse> responses = entries.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
-
+        List<MoodEntryResponse> responses = moodEntryService.getMoodEntriesInRange(user, startDate, endDate);
         return ResponseEntity.ok(responses);
     }
 
+    @GetMapping("/trend")
+    public ResponseEntity<MoodTrendResponse> getMoodTrend(
+            @RequestParam(defaultValue = "DAY") MoodTrendResponse.Bucket bucket,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String timezone,
+            @RequestAttribute("user") User user) {
+
+        ZoneId zone;
+        try {
+            zone = timezone != null ? ZoneId.of(timezone) : ZoneId.systemDefault();
+        } catch (DateTimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        long buckets = bucket.getUnit().between(from.atStartOfDay(), to.atStartOfDay());
+        if (!from.isBefore(to) || buckets > MAX_TREND_BUCKETS) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        MoodTrendResponse trend = moodEntryService.getMoodTrend(user, bucket, from, to, zone);
+        return ResponseEntity.ok(trend);
+    }
+
+    @GetMapping("/emotion-pairs")
+    public ResponseEntity<EmotionCooccurrenceResponse> getEmotionPairs(
+            @RequestParam(defaultValue = "COUNT") EmotionCooccurrenceMatrix.Order orderBy,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestAttribute("user") User user) {
+
+        EmotionCooccurrenceResponse pairs = moodEntryService.getEmotionPairs(user, orderBy,
+                Math.max(1, Math.min(limit, MAX_EMOTION_PAIRS)));
+        return ResponseEntity.ok(pairs);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<MoodEntryResponse> getMoodEntryById(
             @PathVariable Long id,
@@ -151,6 +200,42 @@ public class MoodEntryController {
         return ResponseEntity.ok(convertToResponse(entry.get()));
     }
 
+    @GetMapping("/{id}/suggestions")
+    public ResponseEntity<MoodEntrySuggestionsResponse> getMoodEntrySuggestions(
+            @PathVariable Long id,
+            @RequestAttribute("user") User user) {
+
+        Optional<MoodEntry> entry = moodEntryService.getMoodEntryById(id, user);
+
+        if (entry.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        List<SuggestedActivityResponse> suggestions = moodEntryService.getSuggestedActivities(entry.get()).stream()
+                .map(SuggestedActivityResponse::of)
+                .collect(Collectors.toList());
+
+        return ResponseEntity.ok(MoodEntrySuggestionsResponse.builder()
+                .moodEntryId(id)
+                .status(entry.get().getSuggestionStatus())
+                .suggestions(suggestions)
+                .build());
+    }
+
+    @PostMapping("/{id}/suggestions/retry")
+    public ResponseEntity<Void> retryMoodEntrySuggestions(
+            @PathVariable Long id,
+            @RequestAttribute("user") User user) {
+
+        log.info("Retrying suggestions for mood entry: {} for user: {}", id, user.getId());
+
+        if (!moodEntryService.retrySuggestionGeneration(id, user)) {
+            return ResponseEntity.notFound().build();
+        }
+
+        return ResponseEntity.accepted().build();
+    }
+
     @GetMapping("/statistics")
     public ResponseEntity<MoodEntryService.MoodStatistics> getMoodStatistics(
             @RequestAttribute("user") User user) {
@@ -182,19 +267,6 @@ public class MoodEntryController {
     }
 
     private MoodEntryResponse convertToResponse(MoodEntry moodEntry) {
-        return MoodEntryResponse.builder()
-                .id(moodEntry.getId())
-                .emotionKeys(moodEntry.getEmotionKeys())
-                .location(moodEntry.getLocation())
-                .environment(moodEntry.getEnvironment())
-                .description(moodEntry.getDescription())
-                .energyLevel(moodEntry.getEnergyLevel())
-                .isVoiceInput(moodEntry.getIsVoiceInput())
-                .entryDate(moodEntry.getEntryDate())
-                .createdAt(moodEntry.getCreatedAt())
-                .updatedAt(moodEntry.getUpdatedAt())
-                .suggestedActivitiesCount(
-                        moodEntry.getSuggestedActivities() != null ? moodEntry.getSuggestedActivities().size() : 0)
-                .build();
+        return MoodEntryResponse.of(moodEntry, moodEntryService.countSuggestedActivities(moodEntry));
     }
 }
@@ -2,17 +2,23 @@ package com.mentalapp.controller;
 
 import com.mentalapp.entity.SuggestedActivity;
 import com.mentalapp.entity.User;
+import com.mentalapp.service.PageCursor;
 import com.mentalapp.service.SuggestedActivityService;
+import com.mentalapp.dto.ActivityBulkCompletionRequest;
+import com.mentalapp.dto.ActivityBulkCompletionResponse;
+import com.mentalapp.dto.CursorPage;
 import com.mentalapp.dto.SuggestedActivityResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.format.annotation.DateTimeFormat;
+import jakarta.validation.Valid;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/activities")
@@ -26,44 +32,72 @@ public class SuggestedActivityController {
     @PostMapping("/{id}/complete")
     public ResponseEntity<SuggestedActivityResponse> completeActivity(
             @PathVariable Long id,
+            @RequestParam(required = false) Long version,
             @RequestAttribute("user") User user) {
 
         log.info("Completing activity: {} for user: {}", id, user.getId());
 
-        Optional<SuggestedActivity> result = suggestedActivityService.completeActivity(id, user);
+        Optional<SuggestedActivity> result;
+        try {
+            result = suggestedActivityService.completeActivity(id, version, user);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
 
         if (result.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
 
-        return ResponseEntity.ok(convertToResponse(result.get()));
+        return ResponseEntity.ok(SuggestedActivityResponse.of(result.get()));
     }
 
     @PostMapping("/{id}/uncomplete")
     public ResponseEntity<SuggestedActivityResponse> uncompleteActivity(
             @PathVariable Long id,
+            @RequestParam(required = false) Long version,
             @RequestAttribute("user") User user) {
 
         log.info("Uncompleting activity: {} for user: {}", id, user.getId());
 
-        Optional<SuggestedActivity> result = suggestedActivityService.uncompleteActivity(id, user);
+        Optional<SuggestedActivity> result;
+        try {
+            result = suggestedActivityService.uncompleteActivity(id, version, user);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
 
         if (result.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
 
-        return ResponseEntity.ok(convertToResponse(result.get()));
+        return ResponseEntity.ok(SuggestedActivityResponse.of(result.get()));
+    }
+
+    @PostMapping("/complete")
+    public ResponseEntity<ActivityBulkCompletionResponse> completeActivities(
+            @Valid @RequestBody ActivityBulkCompletionRequest request,
+            @RequestAttribute("user") User user) {
+
+        log.info("Completing {} activities for user: {}", request.getIds().size(), user.getId());
+
+        return ResponseEntity.ok(setActivitiesCompleted(request, true, user));
+    }
+
+    @PostMapping("/uncomplete")
+    public ResponseEntity<ActivityBulkCompletionResponse> uncompleteActivities(
+            @Valid @RequestBody ActivityBulkCompletionRequest request,
+            @RequestAttribute("user") User user) {
+
+        log.info("Uncompleting {} activities for user: {}", request.getIds().size(), user.getId());
+
+        return ResponseEntity.ok(setActivitiesCompleted(request, false, user));
     }
 
     @GetMapping("/today")
     public ResponseEntity<List<SuggestedActivityResponse>> getTodayActivities(
             @RequestAttribute("user") User user) {
 
-        List<SuggestedActivity> activities = suggestedActivityService.getTodayActivities(user);
-        List<SuggestedActivityResponse> responses = activities.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
-
+        List<SuggestedActivityResponse> responses = suggestedActivityService.getTodayActivities(user);
         return ResponseEntity.ok(responses);
     }
 
@@ -71,11 +105,7 @@ public class SuggestedActivityController {
     public ResponseEntity<List<SuggestedActivityResponse>> getPendingTodayActivities(
             @RequestAttribute("user") User user) {
 
-        List<SuggestedActivity> activities = suggestedActivityService.getPendingTodayActivities(user);
-        List<SuggestedActivityResponse> responses = activities.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
-
+        List<SuggestedActivityResponse> responses = suggestedActivityService.getPendingTodayActivities(user);
         return ResponseEntity.ok(responses);
     }
 
@@ -84,36 +114,44 @@ public class SuggestedActivityController {
             @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
             @RequestAttribute("user") User user) {
 
-        List<SuggestedActivity> activities = suggestedActivityService.getActivitiesByDate(user, date);
-        List<SuggestedActivityResponse> responses = activities.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
-
+        List<SuggestedActivityResponse> responses = suggestedActivityService.getActivitiesByDate(user, date);
         return ResponseEntity.ok(responses);
     }
 
     @GetMapping("/history")
-    public ResponseEntity<List<SuggestedActivityResponse>> getPastActivities(
+    public ResponseEntity<CursorPage<SuggestedActivityResponse>> getPastActivities(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + PageCursor.DEFAULT_LIMIT) int limit,
             @RequestAttribute("user") User user) {
 
-        List<SuggestedActivity> activities = suggestedActivityService.getPastActivities(user);
-        List<SuggestedActivityResponse> responses = activities.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        PageCursor pageCursor;
+        try {
+            pageCursor = PageCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
 
-        return ResponseEntity.ok(responses);
+        CursorPage<SuggestedActivityResponse> page = suggestedActivityService.getPastActivities(user, pageCursor,
+                PageCursor.clampLimit(limit));
+        return ResponseEntity.ok(page);
     }
 
     @GetMapping("/completed")
-    public ResponseEntity<List<SuggestedActivityResponse>> getCompletedActivities(
+    public ResponseEntity<CursorPage<SuggestedActivityResponse>> getCompletedActivities(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + PageCursor.DEFAULT_LIMIT) int limit,
             @RequestAttribute("user") User user) {
 
-        List<SuggestedActivity> activities = suggestedActivityService.getCompletedActivities(user);
-        List<SuggestedActivityResponse> responses = activities.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        PageCursor pageCursor;
+        try {
+            pageCursor = PageCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
 
-        return ResponseEntity.ok(responses);
+        CursorPage<SuggestedActivityResponse> page = suggestedActivityService.getCompletedActivities(user, pageCursor,
+                PageCursor.clampLimit(limit));
+        return ResponseEntity.ok(page);
     }
 
     @GetMapping("/category/{category}")
@@ -121,11 +159,7 @@ public class SuggestedActivityController {
             @PathVariable SuggestedActivity.ActivityCategory category,
             @RequestAttribute("user") User user) {
 
-        List<SuggestedActivity> activities = suggestedActivityService.getActivitiesByCategory(user, category);
-        List<SuggestedActivityResponse> responses = activities.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
-
+        List<SuggestedActivityResponse> responses = suggestedActivityService.getActivitiesByCategory(user, category);
         return ResponseEntity.ok(responses);
     }
 
@@ -140,7 +174,7 @@ public class SuggestedActivityController {
             return ResponseEntity.notFound().build();
         }
 
-        return ResponseEntity.ok(convertToResponse(activity.get()));
+        return ResponseEntity.ok(SuggestedActivityResponse.of(activity.get()));
     }
 
     @GetMapping("/statistics")
@@ -168,20 +202,13 @@ public class SuggestedActivityController {
         return ResponseEntity.noContent().build();
     }
 
-    private SuggestedActivityResponse convertToResponse(SuggestedActivity activity) {
-        return SuggestedActivityResponse.builder()
-                .id(activity.getId())
-                .title(activity.getTitle())
-                .description(activity.getDescription())
-                .category(activity.getCategory())
-                .estimatedDurationMinutes(activity.getEstimatedDurationMinutes())
-                .difficultyLevel(activity.getDifficultyLevel())
-                .isCompleted(activity.getIsCompleted())
-                .completedAt(activity.getCompletedAt())
-                .suggestedDate(activity.getSuggestedDate())
-                .createdAt(activity.getCreatedAt())
-                .updatedAt(activity.getUpdatedAt())
-                .moodEntryId(activity.getMoodEntry() != null ? activity.getMoodEntry().getId() : null)
+    private ActivityBulkCompletionResponse setActivitiesCompleted(ActivityBulkCompletionRequest request,
+            boolean completed, User user) {
+        List<Long> updatedIds = suggestedActivityService.setActivitiesCompleted(request.getIds(), completed, user);
+        return ActivityBulkCompletionResponse.builder()
+                .completed(completed)
+                .updated(updatedIds.size())
+                .updatedIds(updatedIds)
                 .build();
     }
 }
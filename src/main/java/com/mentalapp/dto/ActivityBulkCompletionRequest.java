@@ -0,0 +1,23 @@
+package com.mentalapp.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ActivityBulkCompletionRequest {
+
+    public static final int MAX_IDS = 500;
+
+    @NotEmpty(message = "At least one activity id is required")
+    @Size(max = MAX_IDS, message = "At most " + MAX_IDS + " activities per request")
+    private List<@NotNull Long> ids;
+}
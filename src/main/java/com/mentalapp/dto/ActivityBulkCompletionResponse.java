@@ -0,0 +1,18 @@
+package com.mentalapp.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ActivityBulkCompletionResponse {
+
+    private boolean completed;
+    private int updated;
+    private List<Long> updatedIds;
+}
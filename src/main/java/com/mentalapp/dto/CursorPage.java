@@ -0,0 +1,36 @@
+package com.mentalapp.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * One page of a keyset-paginated listing. Pass {@code nextCursor} back as the
+ * {@code cursor} parameter to get the following page.
+ */
+@Value
+@Builder
+public class CursorPage<T> {
+
+    List<T> items;
+    String nextCursor;
+    boolean hasMore;
+
+    public <R> CursorPage<R> map(Function<? super T, ? extends R> mapper) {
+        return withItems(items.stream().map(mapper).collect(Collectors.<R>toList()));
+    }
+
+    /**
+     * Same page position with the items replaced, e.g. converted in one batch
+     */
+    public <R> CursorPage<R> withItems(List<R> newItems) {
+        return CursorPage.<R>builder()
+                .items(newItems)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+}
@@ -0,0 +1,30 @@
+package com.mentalapp.dto;
+
+import com.mentalapp.service.EmotionCooccurrenceMatrix;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EmotionCooccurrenceResponse {
+
+    private int entryCount;
+    private EmotionCooccurrenceMatrix.Order orderBy;
+    private List<Pair> pairs;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Pair {
+        private String first;
+        private String second;
+        private int count;
+        private double lift;
+    }
+}
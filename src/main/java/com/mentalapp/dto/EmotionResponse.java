@@ -0,0 +1,22 @@
+package com.mentalapp.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Value;
+import java.util.List;
+
+/**
+ * Immutable view of a taxonomy node. Flat listings leave {@code children}
+ * null, hierarchical listings (taxonomy) carry the nested sub-emotions.
+ */
+@Value
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class EmotionResponse {
+
+    Long id;
+    String key;
+    String label;
+    String parentKey;
+    List<EmotionResponse> children;
+}
@@ -0,0 +1,23 @@
+package com.mentalapp.dto;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import java.time.LocalDateTime;
+
+/**
+ * One entry of an offline-sync batch: a regular create request plus the
+ * time the entry was recorded on the device and an optional client id that
+ * is echoed back in the result.
+ */
+@Data
+@NoArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+public class MoodEntryBatchItem extends MoodEntryCreateRequest {
+
+    private String clientId;
+
+    private LocalDateTime entryDate;
+}
@@ -0,0 +1,23 @@
+package com.mentalapp.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MoodEntryBatchRequest {
+
+    public static final int MAX_ENTRIES = 500;
+
+    // Items are validated one by one so a bad entry is reported, not fatal
+    @NotEmpty(message = "At least one entry is required")
+    @Size(max = MAX_ENTRIES, message = "At most " + MAX_ENTRIES + " entries per batch")
+    private List<MoodEntryBatchItem> entries;
+}
@@ -0,0 +1,38 @@
+package com.mentalapp.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MoodEntryBatchResponse {
+
+    private int created;
+    private int rejected;
+    private List<ItemResult> results;
+
+    public enum Status {
+        CREATED,
+        REJECTED
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class ItemResult {
+        private int index;
+        private String clientId;
+        private Status status;
+        private Long id;
+        private LocalDateTime entryDate;
+        private int suggestedActivitiesCount;
+        private List<String> errors;
+    }
+}
@@ -0,0 +1,44 @@
+package com.mentalapp.dto;
+
+import com.mentalapp.entity.MoodEntry;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One line of a user's history export: a mood entry with its emotion keys
+ * and suggested activities
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MoodEntryExport {
+
+    private Long id;
+    private List<String> emotionKeys;
+    private String location;
+    private MoodEntry.Environment environment;
+    private String description;
+    private Integer energyLevel;
+    private Boolean isVoiceInput;
+    private LocalDateTime entryDate;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private MoodEntry.SuggestionStatus suggestionStatus;
+    private List<SuggestedActivityResponse> suggestedActivities;
+
+    /**
+     * Projection constructor for the export query; collections are filled in afterwards
+     */
+    public MoodEntryExport(Long id, String location, MoodEntry.Environment environment, String description,
+            Integer energyLevel, Boolean isVoiceInput, LocalDateTime entryDate, LocalDateTime createdAt,
+            LocalDateTime updatedAt, MoodEntry.SuggestionStatus suggestionStatus) {
+        this(id, new ArrayList<>(), location, environment, description, energyLevel, isVoiceInput, entryDate,
+                createdAt, updatedAt, suggestionStatus, new ArrayList<>());
+    }
+}
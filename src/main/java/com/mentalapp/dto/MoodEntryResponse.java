@@ -11,7 +11,7 @@ import java.util.List;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class MoodEntryResponse {
 
     private Long id;
@@ -25,4 +25,28 @@ public class MoodEntryResponse {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     private Integer suggestedActivitiesCount;
+    private MoodEntry.SuggestionStatus suggestionStatus;
+
+    /**
+     * Projection constructor for the list queries; emotion keys and the
+     * suggestion count are filled in afterwards in one batch
+     */
+    public MoodEntryResponse(Long id, String location, MoodEntry.Environment environment, String description,
+            Integer energyLevel, Boolean isVoiceInput, LocalDateTime entryDate, LocalDateTime createdAt,
+            LocalDateTime updatedAt, MoodEntry.SuggestionStatus suggestionStatus) {
+        this(id, List.of(), location, environment, description, energyLevel, isVoiceInput, entryDate, createdAt,
+                updatedAt, 0, suggestionStatus);
+    }
+
+    /**
+     * Response for an entry written in the current request; a null count is
+     * left for the reader to fill in
+     */
+    public static MoodEntryResponse of(MoodEntry entry, Integer suggestedActivitiesCount) {
+        return new MoodEntryResponse(entry.getId(),
+                entry.getEmotionKeys() != null ? List.copyOf(entry.getEmotionKeys()) : List.of(),
+                entry.getLocation(), entry.getEnvironment(), entry.getDescription(), entry.getEnergyLevel(),
+                entry.getIsVoiceInput(), entry.getEntryDate(), entry.getCreatedAt(), entry.getUpdatedAt(),
+                suggestedActivitiesCount, entry.getSuggestionStatus());
+    }
 }
@@ -0,0 +1,19 @@
+package com.mentalapp.dto;
+
+import com.mentalapp.entity.MoodEntry;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MoodEntrySuggestionsResponse {
+
+    private Long moodEntryId;
+    private MoodEntry.SuggestionStatus status;
+    private List<SuggestedActivityResponse> suggestions;
+}
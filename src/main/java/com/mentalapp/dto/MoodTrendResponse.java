@@ -0,0 +1,66 @@
+package com.mentalapp.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Mood aggregates per time bucket; buckets without entries are omitted
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MoodTrendResponse {
+
+    private Bucket bucket;
+    private String timezone;
+    private LocalDate from;
+    private LocalDate to;
+    private List<Point> points;
+
+    public enum Bucket {
+        HOUR("hour", ChronoUnit.HOURS),
+        DAY("day", ChronoUnit.DAYS),
+        WEEK("week", ChronoUnit.WEEKS),
+        MONTH("month", ChronoUnit.MONTHS);
+
+        private final String sqlUnit;
+        private final ChronoUnit unit;
+
+        Bucket(String sqlUnit, ChronoUnit unit) {
+            this.sqlUnit = sqlUnit;
+            this.unit = unit;
+        }
+
+        /**
+         * Field name for PostgreSQL date_trunc
+         */
+        public String getSqlUnit() {
+            return sqlUnit;
+        }
+
+        public ChronoUnit getUnit() {
+            return unit;
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Point {
+        /** Bucket start, wall-clock time in the requested timezone */
+        private LocalDateTime start;
+        private long entryCount;
+        private double averageEnergy;
+        private int minEnergy;
+        private int maxEnergy;
+        private String dominantCategory;
+    }
+}
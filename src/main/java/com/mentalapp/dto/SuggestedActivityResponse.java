@@ -26,4 +26,16 @@ public class SuggestedActivityResponse {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     private Long moodEntryId;
+    private Long version;
+
+    /**
+     * Response for an activity written in the current request
+     */
+    public static SuggestedActivityResponse of(SuggestedActivity activity) {
+        return new SuggestedActivityResponse(activity.getId(), activity.getTitle(), activity.getDescription(),
+                activity.getCategory(), activity.getEstimatedDurationMinutes(), activity.getDifficultyLevel(),
+                activity.getIsCompleted(), activity.getCompletedAt(), activity.getSuggestedDate(),
+                activity.getCreatedAt(), activity.getUpdatedAt(),
+                activity.getMoodEntry() != null ? activity.getMoodEntry().getId() : null, activity.getVersion());
+    }
 }
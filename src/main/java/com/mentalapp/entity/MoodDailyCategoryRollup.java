@@ -0,0 +1,47 @@
+package com.mentalapp.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Per-user, per-day count of mood entries that mention each root emotion category
+ */
+@Entity
+@Table(name = "mood_daily_category_rollups")
+@IdClass(MoodDailyCategoryRollup.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MoodDailyCategoryRollup {
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Id
+    @Column(name = "day")
+    private LocalDate day;
+
+    @Id
+    @Column(name = "category_key", length = 100)
+    private String categoryKey;
+
+    @Column(name = "entry_count", nullable = false)
+    private int entryCount;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private Long userId;
+        private LocalDate day;
+        private String categoryKey;
+    }
+}
@@ -0,0 +1,49 @@
+package com.mentalapp.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Per-user, per-day totals of mood entries, kept up to date by
+ * {@link com.mentalapp.service.MoodRollupService} as entries are written
+ */
+@Entity
+@Table(name = "mood_daily_rollups")
+@IdClass(MoodDailyRollup.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MoodDailyRollup {
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Id
+    @Column(name = "day")
+    private LocalDate day;
+
+    @Column(name = "entry_count", nullable = false)
+    private int entryCount;
+
+    @Column(name = "energy_sum", nullable = false)
+    private long energySum;
+
+    @Column(name = "energy_count", nullable = false)
+    private int energyCount;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private Long userId;
+        private LocalDate day;
+    }
+}
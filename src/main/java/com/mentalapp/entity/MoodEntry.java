@@ -5,19 +5,23 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
+import org.hibernate.annotations.BatchSize;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "mood_entries")
+@Table(name = "mood_entries", indexes = {
+        @Index(name = "idx_mood_entries_user_entry_date_id", columnList = "user_id, entry_date DESC, id DESC")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class MoodEntry {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "mood_entries_seq")
+    @SequenceGenerator(name = "mood_entries_seq", sequenceName = "mood_entries_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -25,8 +29,11 @@ public class MoodEntry {
     @JsonIgnore
     private User user;
 
-    @ElementCollection(fetch = FetchType.EAGER)
-    @CollectionTable(name = "mood_entry_emotions", joinColumns = @JoinColumn(name = "mood_entry_id"))
+    @ElementCollection(fetch = FetchType.LAZY)
+    @BatchSize(size = 100)
+    @CollectionTable(name = "mood_entry_emotions", joinColumns = @JoinColumn(name = "mood_entry_id"),
+            foreignKey = @ForeignKey(name = "fk_mood_entry_emotions_mood_entry", foreignKeyDefinition =
+                    "FOREIGN KEY (mood_entry_id) REFERENCES mood_entries(id) ON DELETE CASCADE"))
     @Column(name = "emotion_key")
     private List<String> emotionKeys;
 
@@ -55,16 +62,23 @@ public class MoodEntry {
     @Column(name = "is_voice_input")
     private Boolean isVoiceInput = false;
 
+    @Enumerated(EnumType.STRING)
+    @Column(name = "suggestion_status", nullable = false)
+    private SuggestionStatus suggestionStatus;
+
     @OneToMany(mappedBy = "moodEntry", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<SuggestedActivity> suggestedActivities;
 
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
-        updatedAt = LocalDateTime.now();
+        updatedAt = createdAt;
         if (entryDate == null) {
             entryDate = LocalDateTime.now();
         }
+        if (suggestionStatus == null) {
+            suggestionStatus = SuggestionStatus.READY;
+        }
     }
 
     @PreUpdate
@@ -86,4 +100,10 @@ public class MoodEntry {
             return displayName;
         }
     }
+
+    public enum SuggestionStatus {
+        PENDING,
+        READY,
+        FAILED
+    }
 }
@@ -6,18 +6,24 @@ import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
 import java.time.LocalDateTime;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "suggested_activities")
+@Table(name = "suggested_activities", indexes = {
+        @Index(name = "idx_suggested_activities_user_date_id", columnList = "user_id, suggested_date DESC, id"),
+        @Index(name = "idx_suggested_activities_user_completed_at_id", columnList = "user_id, completed_at DESC, id DESC")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class SuggestedActivity {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "suggested_activities_seq")
+    @SequenceGenerator(name = "suggested_activities_seq", sequenceName = "suggested_activities_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -27,6 +33,7 @@ public class SuggestedActivity {
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "mood_entry_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
     @JsonIgnore
     private MoodEntry moodEntry;
 
@@ -40,6 +47,10 @@ public class SuggestedActivity {
     @Column(name = "category", nullable = false)
     private ActivityCategory category;
 
+    @Enumerated(EnumType.STRING)
+    @Column(name = "strategy")
+    private SuggestionStrategy strategy;
+
     @Column(name = "estimated_duration_minutes")
     private Integer estimatedDurationMinutes;
 
@@ -62,6 +73,10 @@ public class SuggestedActivity {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
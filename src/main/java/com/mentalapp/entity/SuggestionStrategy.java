@@ -0,0 +1,10 @@
+package com.mentalapp.entity;
+
+/**
+ * The three slots every mood entry gets a suggestion for, in output order
+ */
+public enum SuggestionStrategy {
+    ENERGY,
+    EMOTION,
+    CONTEXT
+}
@@ -0,0 +1,132 @@
+package com.mentalapp.repository;
+
+import com.mentalapp.entity.MoodEntry;
+import com.mentalapp.entity.SuggestedActivity;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Plain JDBC batch inserts for bulk ingest. Runs on the connection of the
+ * surrounding JPA transaction; rows written here are not in the persistence
+ * context.
+ */
+@Repository
+@RequiredArgsConstructor
+public class MoodEntryBatchWriter {
+
+    public static final int BATCH_SIZE = 100;
+
+    /** allocationSize of the entity sequence generators, INCREMENT BY of their sequences */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    private static final String INSERT_ENTRY = "INSERT INTO mood_entries "
+            + "(id, user_id, location, environment, description, energy_level, entry_date, created_at, updated_at, "
+            + "is_voice_input, suggestion_status) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_EMOTION = "INSERT INTO mood_entry_emotions (mood_entry_id, emotion_key) "
+            + "VALUES (?, ?)";
+
+    private static final String INSERT_ACTIVITY = "INSERT INTO suggested_activities "
+            + "(id, user_id, mood_entry_id, title, description, category, strategy, estimated_duration_minutes, "
+            + "difficulty_level, is_completed, suggested_date, created_at, updated_at, version) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Insert the entries and their emotion keys, assigning ids from the
+     * entity sequence
+     */
+    public void insertEntries(List<MoodEntry> entries) {
+        LocalDateTime now = LocalDateTime.now();
+        long[] ids = allocateIds("mood_entries_seq", entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            MoodEntry entry = entries.get(i);
+            entry.setId(ids[i]);
+            entry.setCreatedAt(now);
+            entry.setUpdatedAt(now);
+        }
+        jdbcTemplate.batchUpdate(INSERT_ENTRY, entries, BATCH_SIZE, (statement, entry) -> {
+            statement.setLong(1, entry.getId());
+            statement.setLong(2, entry.getUser().getId());
+            statement.setString(3, entry.getLocation());
+            statement.setString(4, entry.getEnvironment().name());
+            statement.setString(5, entry.getDescription());
+            statement.setInt(6, entry.getEnergyLevel());
+            statement.setObject(7, entry.getEntryDate());
+            statement.setObject(8, entry.getCreatedAt());
+            statement.setObject(9, entry.getUpdatedAt());
+            statement.setObject(10, entry.getIsVoiceInput(), Types.BOOLEAN);
+            statement.setString(11, entry.getSuggestionStatus().name());
+        });
+
+        List<Object[]> emotions = new ArrayList<>();
+        for (MoodEntry entry : entries) {
+            for (String key : entry.getEmotionKeys()) {
+                emotions.add(new Object[] { entry.getId(), key });
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_EMOTION, emotions, BATCH_SIZE, (statement, row) -> {
+            statement.setLong(1, (Long) row[0]);
+            statement.setString(2, (String) row[1]);
+        });
+    }
+
+    /**
+     * Insert suggestion rows for entries already written by {@link #insertEntries}
+     */
+    public void insertActivities(List<SuggestedActivity> activities) {
+        LocalDateTime now = LocalDateTime.now();
+        long[] ids = allocateIds("suggested_activities_seq", activities.size());
+        for (int i = 0; i < activities.size(); i++) {
+            SuggestedActivity activity = activities.get(i);
+            activity.setId(ids[i]);
+            activity.setCreatedAt(now);
+            activity.setUpdatedAt(now);
+            activity.setVersion(0L);
+        }
+        jdbcTemplate.batchUpdate(INSERT_ACTIVITY, activities, BATCH_SIZE, (statement, activity) -> {
+            statement.setLong(1, activity.getId());
+            statement.setLong(2, activity.getUser().getId());
+            statement.setLong(3, activity.getMoodEntry().getId());
+            statement.setString(4, activity.getTitle());
+            statement.setString(5, activity.getDescription());
+            statement.setString(6, activity.getCategory().name());
+            statement.setString(7, activity.getStrategy() != null ? activity.getStrategy().name() : null);
+            statement.setObject(8, activity.getEstimatedDurationMinutes(), Types.INTEGER);
+            statement.setString(9, activity.getDifficultyLevel() != null ? activity.getDifficultyLevel().name() : null);
+            statement.setBoolean(10, Boolean.TRUE.equals(activity.getIsCompleted()));
+            statement.setObject(11, activity.getSuggestedDate());
+            statement.setObject(12, activity.getCreatedAt());
+            statement.setObject(13, activity.getUpdatedAt());
+            statement.setLong(14, activity.getVersion());
+        });
+    }
+
+    /**
+     * Ids from an entity sequence, following Hibernate's pooled optimizer:
+     * each nextval reserves the {@link #ID_ALLOCATION_SIZE} ids ending at the
+     * returned value, so these never collide with ids Hibernate hands out
+     */
+    private long[] allocateIds(String sequence, int count) {
+        long[] ids = new long[count];
+        int filled = 0;
+        while (filled < count) {
+            int blocks = (count - filled + ID_ALLOCATION_SIZE - 1) / ID_ALLOCATION_SIZE;
+            List<Long> highs = jdbcTemplate.queryForList(
+                    "SELECT nextval(CAST(? AS regclass)) FROM generate_series(1, ?)", Long.class, sequence, blocks);
+            for (long high : highs) {
+                for (long id = Math.max(1, high - ID_ALLOCATION_SIZE + 1); id <= high && filled < count; id++) {
+                    ids[filled++] = id;
+                }
+            }
+        }
+        return ids;
+    }
+}
@@ -1,45 +1,134 @@
 package com.mentalapp.repository;
 
+import com.mentalapp.dto.MoodEntryExport;
+import com.mentalapp.dto.MoodEntryResponse;
 import com.mentalapp.entity.MoodEntry;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface MoodEntryRepository extends JpaRepository<MoodEntry, Long> {
 
-    @Query("SELECT m FROM MoodEntry m WHERE m.user.id = :userId ORDER BY m.entryDate DESC")
-    List<MoodEntry> findByUserIdOrderByEntryDateDesc(@Param("userId") Long userId);
+    /** Rows per round trip for the forward-only export streams */
+    int EXPORT_FETCH_SIZE = 500;
+
+    /** Selects only the response columns of list queries straight into the DTO */
+    String RESPONSE_SELECT = "SELECT new com.mentalapp.dto.MoodEntryResponse(m.id, m.location, m.environment, "
+            + "m.description, m.energyLevel, m.isVoiceInput, m.entryDate, m.createdAt, m.updatedAt, "
+            + "m.suggestionStatus) FROM MoodEntry m ";
+
+    @Query(RESPONSE_SELECT + "WHERE m.user.id = :userId ORDER BY m.entryDate DESC, m.id DESC")
+    List<MoodEntryResponse> findFirstPageByUserId(@Param("userId") Long userId, Pageable pageable);
 
-    @Query("SELECT m FROM MoodEntry m WHERE m.user.id = :userId AND m.entryDate >= :startOfDay AND m.entryDate < :endOfDay ORDER BY m.entryDate DESC")
-    List<MoodEntry> findByUserIdAndEntryDate(@Param("userId") Long userId,
+    @Query(RESPONSE_SELECT + "WHERE m.user.id = :userId "
+            + "AND (m.entryDate < :entryDate OR (m.entryDate = :entryDate AND m.id < :id)) "
+            + "ORDER BY m.entryDate DESC, m.id DESC")
+    List<MoodEntryResponse> findPageByUserIdAfter(@Param("userId") Long userId,
+            @Param("entryDate") LocalDateTime entryDate, @Param("id") Long id, Pageable pageable);
+
+    @Query(RESPONSE_SELECT + "WHERE m.user.id = :userId AND m.entryDate >= :startOfDay AND m.entryDate < :endOfDay ORDER BY m.entryDate DESC")
+    List<MoodEntryResponse> findByUserIdAndEntryDate(@Param("userId") Long userId,
             @Param("startOfDay") LocalDateTime startOfDay, @Param("endOfDay") LocalDateTime endOfDay);
 
-    @Query("SELECT m FROM MoodEntry m WHERE m.user.id = :userId AND m.entryDate >= :startOfDay AND m.entryDate < :endOfDay ORDER BY m.entryDate DESC")
-    List<MoodEntry> findTodayMoodEntriesByUserId(@Param("userId") Long userId,
+    @Query(RESPONSE_SELECT + "WHERE m.user.id = :userId AND m.entryDate >= :startOfDay AND m.entryDate < :endOfDay ORDER BY m.entryDate DESC")
+    List<MoodEntryResponse> findTodayMoodEntriesByUserId(@Param("userId") Long userId,
             @Param("startOfDay") LocalDateTime startOfDay, @Param("endOfDay") LocalDateTime endOfDay);
 
-    @Query("SELECT m FROM MoodEntry m WHERE m.user.id = :userId AND m.entryDate >= :startDate AND m.entryDate <= :endDate ORDER BY m.entryDate DESC")
-    List<MoodEntry> findByUserIdAndDateRange(@Param("userId") Long userId,
+    @Query(RESPONSE_SELECT + "WHERE m.user.id = :userId AND m.entryDate >= :startDate AND m.entryDate <= :endDate ORDER BY m.entryDate DESC")
+    List<MoodEntryResponse> findByUserIdAndDateRange(@Param("userId") Long userId,
             @Param("startDate") LocalDateTime startDate,
             @Param("endDate") LocalDateTime endDate);
 
-    @Query("SELECT m FROM MoodEntry m WHERE m.id = :id AND m.user.id = :userId")
+    @Query("SELECT m FROM MoodEntry m LEFT JOIN FETCH m.emotionKeys WHERE m.id = :id AND m.user.id = :userId")
     Optional<MoodEntry> findByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
 
-    @Query("SELECT COUNT(m) FROM MoodEntry m WHERE m.user.id = :userId AND m.entryDate >= :startOfDay AND m.entryDate < :endOfDay")
-    long countTodayEntriesByUserId(@Param("userId") Long userId, @Param("startOfDay") LocalDateTime startOfDay,
-            @Param("endOfDay") LocalDateTime endOfDay);
+    @Query(RESPONSE_SELECT + "WHERE m.user.id = :userId AND m.entryDate >= :startOfDay AND m.entryDate < :endOfDay AND m.createdAt = m.updatedAt")
+    List<MoodEntryResponse> findTodayEditableMoodEntries(@Param("userId") Long userId,
+            @Param("startOfDay") LocalDateTime startOfDay, @Param("endOfDay") LocalDateTime endOfDay);
+
+    @Query("SELECT m.id, k FROM MoodEntry m JOIN m.emotionKeys k WHERE m.id IN :ids")
+    List<Object[]> findEmotionKeysByMoodEntryIds(@Param("ids") Collection<Long> ids);
 
-    @Query("SELECT AVG(m.energyLevel) FROM MoodEntry m WHERE m.user.id = :userId AND m.entryDate >= :startDate")
-    Double getAverageEnergyLevelSince(@Param("userId") Long userId, @Param("startDate") LocalDateTime startDate);
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.mentalapp.dto.MoodEntryExport(m.id, m.location, m.environment, m.description, "
+            + "m.energyLevel, m.isVoiceInput, m.entryDate, m.createdAt, m.updatedAt, m.suggestionStatus) "
+            + "FROM MoodEntry m WHERE m.user.id = :userId ORDER BY m.id")
+    Stream<MoodEntryExport> streamExportByUserId(@Param("userId") Long userId);
 
-    @Query("SELECT m FROM MoodEntry m WHERE m.user.id = :userId AND m.entryDate >= :startOfDay AND m.entryDate < :endOfDay AND m.createdAt = m.updatedAt")
-    List<MoodEntry> findTodayEditableMoodEntries(@Param("userId") Long userId,
-            @Param("startOfDay") LocalDateTime startOfDay, @Param("endOfDay") LocalDateTime endOfDay);
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT m.id, k FROM MoodEntry m JOIN m.emotionKeys k WHERE m.user.id = :userId ORDER BY m.id")
+    Stream<Object[]> streamEmotionKeysByUserId(@Param("userId") Long userId);
+
+    /**
+     * Per-bucket energy aggregates and most mentioned root category, bucketed
+     * by date_trunc on the entry date converted from the server's to the
+     * requested timezone. Rows: bucket start, count, avg, min, max, category.
+     */
+    @Query(value = "WITH RECURSIVE roots (key, root_key) AS ("
+            + "  SELECT e.key, e.key FROM emotions e WHERE e.parent_key IS NULL "
+            + "  UNION ALL "
+            + "  SELECT e.key, r.root_key FROM emotions e JOIN roots r ON e.parent_key = r.key), "
+            + "entries AS ("
+            + "  SELECT m.id, m.energy_level, "
+            + "  date_trunc(:unit, (m.entry_date AT TIME ZONE :serverZone) AT TIME ZONE :zone) AS bucket "
+            + "  FROM mood_entries m "
+            + "  WHERE m.user_id = :userId AND m.entry_date >= :startDate AND m.entry_date < :endDate), "
+            + "totals AS ("
+            + "  SELECT bucket, COUNT(*) AS entry_count, AVG(energy_level) AS avg_energy, "
+            + "  MIN(energy_level) AS min_energy, MAX(energy_level) AS max_energy "
+            + "  FROM entries GROUP BY bucket), "
+            + "categories AS ("
+            + "  SELECT DISTINCT ON (en.bucket) en.bucket, r.root_key "
+            + "  FROM entries en "
+            + "  JOIN mood_entry_emotions me ON me.mood_entry_id = en.id "
+            + "  JOIN roots r ON r.key = me.emotion_key "
+            + "  GROUP BY en.bucket, r.root_key "
+            + "  ORDER BY en.bucket, COUNT(DISTINCT en.id) DESC, r.root_key) "
+            + "SELECT t.bucket, t.entry_count, t.avg_energy, t.min_energy, t.max_energy, c.root_key "
+            + "FROM totals t LEFT JOIN categories c ON c.bucket = t.bucket "
+            + "ORDER BY t.bucket",
+            nativeQuery = true)
+    List<Object[]> findTrendByUserId(@Param("userId") Long userId, @Param("unit") String unit,
+            @Param("serverZone") String serverZone, @Param("zone") String zone,
+            @Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+
+    /**
+     * Delete the user's entry if it was created in [dayStart, dayEnd), in one
+     * statement; the database cascades to emotions and suggestions. Returns
+     * (entry_date, energy_level, emotion_key) of the deleted entry, one row
+     * per emotion key, read from the snapshot before the delete.
+     */
+    @Query(value = "WITH deleted AS (DELETE FROM mood_entries "
+            + "WHERE id = :id AND user_id = :userId AND created_at >= :dayStart AND created_at < :dayEnd "
+            + "RETURNING id, entry_date, energy_level) "
+            + "SELECT d.entry_date, d.energy_level, e.emotion_key FROM deleted d "
+            + "LEFT JOIN mood_entry_emotions e ON e.mood_entry_id = d.id",
+            nativeQuery = true)
+    List<Object[]> deleteCreatedBetweenByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId,
+            @Param("dayStart") LocalDateTime dayStart, @Param("dayEnd") LocalDateTime dayEnd);
+
+    @Modifying
+    @Query("UPDATE MoodEntry m SET m.suggestionStatus = :status WHERE m.id = :id")
+    int updateSuggestionStatus(@Param("id") Long id, @Param("status") MoodEntry.SuggestionStatus status);
 }
@@ -0,0 +1,94 @@
+package com.mentalapp.repository;
+
+import com.mentalapp.entity.MoodDailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDate;
+import java.util.Collection;
+
+@Repository
+public interface MoodRollupRepository extends JpaRepository<MoodDailyRollup, MoodDailyRollup.Key> {
+
+    /** Held by writers for the rest of their transaction; the backfill takes it exclusively */
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock_shared(:userId)", nativeQuery = true)
+    int lockUserShared(@Param("userId") Long userId);
+
+    @Query(value = "SELECT COUNT(*) FROM users u, LATERAL pg_advisory_xact_lock(u.id) WHERE u.id IN (:userIds)",
+            nativeQuery = true)
+    long lockUsersExclusive(@Param("userIds") Collection<Long> userIds);
+
+    @Modifying
+    @Query(value = "INSERT INTO mood_daily_rollups (user_id, day, entry_count, energy_sum, energy_count) "
+            + "VALUES (:userId, :day, :entries, :energySum, :energyCount) "
+            + "ON CONFLICT (user_id, day) DO UPDATE SET "
+            + "entry_count = mood_daily_rollups.entry_count + EXCLUDED.entry_count, "
+            + "energy_sum = mood_daily_rollups.energy_sum + EXCLUDED.energy_sum, "
+            + "energy_count = mood_daily_rollups.energy_count + EXCLUDED.energy_count",
+            nativeQuery = true)
+    int addToDay(@Param("userId") Long userId, @Param("day") LocalDate day, @Param("entries") int entries,
+            @Param("energySum") long energySum, @Param("energyCount") int energyCount);
+
+    @Modifying
+    @Query(value = "INSERT INTO mood_daily_category_rollups (user_id, day, category_key, entry_count) "
+            + "VALUES (:userId, :day, :categoryKey, :entries) "
+            + "ON CONFLICT (user_id, day, category_key) DO UPDATE SET "
+            + "entry_count = mood_daily_category_rollups.entry_count + EXCLUDED.entry_count",
+            nativeQuery = true)
+    int addToCategory(@Param("userId") Long userId, @Param("day") LocalDate day,
+            @Param("categoryKey") String categoryKey, @Param("entries") int entries);
+
+    @Query("SELECT COALESCE(SUM(CASE WHEN r.day = :today THEN r.entryCount ELSE 0 END), 0) AS todayEntries, "
+            + "COALESCE(SUM(CASE WHEN r.day >= :weekStart THEN r.energySum ELSE 0 END), 0) AS weekEnergySum, "
+            + "COALESCE(SUM(CASE WHEN r.day >= :weekStart THEN r.energyCount ELSE 0 END), 0) AS weekEnergyCount, "
+            + "COALESCE(SUM(r.energySum), 0) AS monthEnergySum, "
+            + "COALESCE(SUM(r.energyCount), 0) AS monthEnergyCount "
+            + "FROM MoodDailyRollup r WHERE r.userId = :userId AND r.day >= :monthStart")
+    StatisticsRow getStatistics(@Param("userId") Long userId, @Param("today") LocalDate today,
+            @Param("weekStart") LocalDate weekStart, @Param("monthStart") LocalDate monthStart);
+
+    @Modifying
+    @Query(value = "DELETE FROM mood_daily_rollups WHERE user_id IN (:userIds)", nativeQuery = true)
+    int deleteDaysByUserIds(@Param("userIds") Collection<Long> userIds);
+
+    @Modifying
+    @Query(value = "DELETE FROM mood_daily_category_rollups WHERE user_id IN (:userIds)", nativeQuery = true)
+    int deleteCategoriesByUserIds(@Param("userIds") Collection<Long> userIds);
+
+    @Modifying
+    @Query(value = "INSERT INTO mood_daily_rollups (user_id, day, entry_count, energy_sum, energy_count) "
+            + "SELECT m.user_id, CAST(m.entry_date AS DATE), COUNT(*), SUM(m.energy_level), COUNT(m.energy_level) "
+            + "FROM mood_entries m WHERE m.user_id IN (:userIds) "
+            + "GROUP BY m.user_id, CAST(m.entry_date AS DATE)",
+            nativeQuery = true)
+    int rebuildDaysForUserIds(@Param("userIds") Collection<Long> userIds);
+
+    @Modifying
+    @Query(value = "INSERT INTO mood_daily_category_rollups (user_id, day, category_key, entry_count) "
+            + "WITH RECURSIVE roots (key, root_key) AS ("
+            + "  SELECT e.key, e.key FROM emotions e WHERE e.parent_key IS NULL "
+            + "  UNION ALL "
+            + "  SELECT e.key, r.root_key FROM emotions e JOIN roots r ON e.parent_key = r.key) "
+            + "SELECT m.user_id, CAST(m.entry_date AS DATE), r.root_key, COUNT(DISTINCT m.id) "
+            + "FROM mood_entries m "
+            + "JOIN mood_entry_emotions me ON me.mood_entry_id = m.id "
+            + "JOIN roots r ON r.key = me.emotion_key "
+            + "WHERE m.user_id IN (:userIds) "
+            + "GROUP BY m.user_id, CAST(m.entry_date AS DATE), r.root_key",
+            nativeQuery = true)
+    int rebuildCategoriesForUserIds(@Param("userIds") Collection<Long> userIds);
+
+    interface StatisticsRow {
+        long getTodayEntries();
+
+        long getWeekEnergySum();
+
+        long getWeekEnergyCount();
+
+        long getMonthEnergySum();
+
+        long getMonthEnergyCount();
+    }
+}
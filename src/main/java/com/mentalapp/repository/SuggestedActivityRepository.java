@@ -1,45 +1,141 @@
 package com.mentalapp.repository;
 
+import com.mentalapp.dto.SuggestedActivityResponse;
 import com.mentalapp.entity.SuggestedActivity;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface SuggestedActivityRepository extends JpaRepository<SuggestedActivity, Long> {
 
-    @Query("SELECT s FROM SuggestedActivity s WHERE s.user.id = :userId AND s.suggestedDate = :date ORDER BY s.createdAt ASC")
-    List<SuggestedActivity> findByUserIdAndSuggestedDate(@Param("userId") Long userId, @Param("date") LocalDate date);
+    /** Selects only the response columns of list queries straight into the DTO */
+    String RESPONSE_SELECT = "SELECT new com.mentalapp.dto.SuggestedActivityResponse(s.id, s.title, "
+            + "s.description, s.category, s.estimatedDurationMinutes, s.difficultyLevel, s.isCompleted, "
+            + "s.completedAt, s.suggestedDate, s.createdAt, s.updatedAt, s.moodEntry.id, s.version) FROM SuggestedActivity s ";
+
+    @Query(RESPONSE_SELECT + "WHERE s.user.id = :userId AND s.suggestedDate = :date ORDER BY s.createdAt ASC")
+    List<SuggestedActivityResponse> findByUserIdAndSuggestedDate(@Param("userId") Long userId, @Param("date") LocalDate date);
+
+    @Query(RESPONSE_SELECT + "WHERE s.user.id = :userId AND s.suggestedDate = CURRENT_DATE ORDER BY s.createdAt ASC")
+    List<SuggestedActivityResponse> findTodayActivitiesByUserId(@Param("userId") Long userId);
 
-    @Query("SELECT s FROM SuggestedActivity s WHERE s.user.id = :userId AND s.suggestedDate = CURRENT_DATE ORDER BY s.createdAt ASC")
-    List<SuggestedActivity> findTodayActivitiesByUserId(@Param("userId") Long userId);
+    @Query(RESPONSE_SELECT + "WHERE s.user.id = :userId AND s.suggestedDate < CURRENT_DATE "
+            + "ORDER BY s.suggestedDate DESC, s.id ASC")
+    List<SuggestedActivityResponse> findPastActivitiesFirstPage(@Param("userId") Long userId, Pageable pageable);
 
-    @Query("SELECT s FROM SuggestedActivity s WHERE s.user.id = :userId AND s.suggestedDate < CURRENT_DATE ORDER BY s.suggestedDate DESC, s.createdAt ASC")
-    List<SuggestedActivity> findPastActivitiesByUserId(@Param("userId") Long userId);
+    @Query(RESPONSE_SELECT + "WHERE s.user.id = :userId AND s.suggestedDate < CURRENT_DATE "
+            + "AND (s.suggestedDate < :suggestedDate OR (s.suggestedDate = :suggestedDate AND s.id > :id)) "
+            + "ORDER BY s.suggestedDate DESC, s.id ASC")
+    List<SuggestedActivityResponse> findPastActivitiesPageAfter(@Param("userId") Long userId,
+            @Param("suggestedDate") LocalDate suggestedDate, @Param("id") Long id, Pageable pageable);
 
-    @Query("SELECT s FROM SuggestedActivity s WHERE s.user.id = :userId AND s.isCompleted = true ORDER BY s.completedAt DESC")
-    List<SuggestedActivity> findCompletedActivitiesByUserId(@Param("userId") Long userId);
+    @Query(RESPONSE_SELECT + "WHERE s.user.id = :userId AND s.isCompleted = true "
+            + "AND s.completedAt IS NOT NULL ORDER BY s.completedAt DESC, s.id DESC")
+    List<SuggestedActivityResponse> findCompletedActivitiesFirstPage(@Param("userId") Long userId, Pageable pageable);
 
-    @Query("SELECT s FROM SuggestedActivity s WHERE s.user.id = :userId AND s.isCompleted = false AND s.suggestedDate = CURRENT_DATE ORDER BY s.createdAt ASC")
-    List<SuggestedActivity> findPendingTodayActivitiesByUserId(@Param("userId") Long userId);
+    @Query(RESPONSE_SELECT + "WHERE s.user.id = :userId AND s.isCompleted = true "
+            + "AND (s.completedAt < :completedAt OR (s.completedAt = :completedAt AND s.id < :id)) "
+            + "ORDER BY s.completedAt DESC, s.id DESC")
+    List<SuggestedActivityResponse> findCompletedActivitiesPageAfter(@Param("userId") Long userId,
+            @Param("completedAt") LocalDateTime completedAt, @Param("id") Long id, Pageable pageable);
+
+    @Query(RESPONSE_SELECT + "WHERE s.user.id = :userId AND s.isCompleted = false AND s.suggestedDate = CURRENT_DATE ORDER BY s.createdAt ASC")
+    List<SuggestedActivityResponse> findPendingTodayActivitiesByUserId(@Param("userId") Long userId);
 
     @Query("SELECT s FROM SuggestedActivity s WHERE s.id = :id AND s.user.id = :userId")
     Optional<SuggestedActivity> findByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
 
+    /**
+     * Set the completion state of the user's activities among the ids in one
+     * statement; rows already in that state are left alone. Returns the rows
+     * that changed.
+     */
+    @Query(value = "UPDATE suggested_activities SET is_completed = :completed, "
+            + "completed_at = CASE WHEN :completed THEN CAST(:now AS TIMESTAMP) END, updated_at = :now, "
+            + "version = version + 1 "
+            + "WHERE id IN (:ids) AND user_id = :userId AND is_completed IS DISTINCT FROM :completed "
+            + "RETURNING *",
+            nativeQuery = true)
+    List<SuggestedActivity> setCompletedByIdsAndUserId(@Param("ids") Collection<Long> ids, @Param("userId") Long userId,
+            @Param("completed") boolean completed, @Param("now") LocalDateTime now);
+
+    /**
+     * Set the completion state of one of the user's activities in one
+     * statement and return the resulting row. A row already in the requested
+     * state matches regardless of the expected version and is returned
+     * unchanged, so retries are harmless; otherwise a non-null expected
+     * version must match. Empty when the activity is missing or the version
+     * is stale.
+     */
+    @Query(value = "UPDATE suggested_activities SET "
+            + "completed_at = CASE WHEN :completed THEN COALESCE(completed_at, CAST(:now AS TIMESTAMP)) END, "
+            + "updated_at = CASE WHEN is_completed IS DISTINCT FROM :completed "
+            + "THEN CAST(:now AS TIMESTAMP) ELSE updated_at END, "
+            + "version = CASE WHEN is_completed IS DISTINCT FROM :completed THEN version + 1 ELSE version END, "
+            + "is_completed = :completed "
+            + "WHERE id = :id AND user_id = :userId AND (is_completed IS NOT DISTINCT FROM :completed "
+            + "OR CAST(:expectedVersion AS BIGINT) IS NULL OR version = CAST(:expectedVersion AS BIGINT)) "
+            + "RETURNING *",
+            nativeQuery = true)
+    Optional<SuggestedActivity> setCompletedByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId,
+            @Param("completed") boolean completed, @Param("expectedVersion") Long expectedVersion,
+            @Param("now") LocalDateTime now);
+
+    @Query("SELECT COUNT(s) > 0 FROM SuggestedActivity s WHERE s.id = :id AND s.user.id = :userId")
+    boolean existsByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
+
+    /**
+     * Completed suggestions are history and are never removed by regeneration.
+     * Returns the ids actually deleted, which leaves out rows completed
+     * concurrently.
+     */
+    @Query(value = "DELETE FROM suggested_activities WHERE id IN (:ids) AND is_completed = false RETURNING id",
+            nativeQuery = true)
+    List<Long> deleteIncompleteByIds(@Param("ids") Collection<Long> ids);
+
     @Query("SELECT s FROM SuggestedActivity s WHERE s.moodEntry.id = :moodEntryId ORDER BY s.createdAt ASC")
     List<SuggestedActivity> findByMoodEntryId(@Param("moodEntryId") Long moodEntryId);
 
-    @Query("SELECT COUNT(s) FROM SuggestedActivity s WHERE s.user.id = :userId AND s.isCompleted = true AND s.suggestedDate = CURRENT_DATE")
-    long countCompletedTodayByUserId(@Param("userId") Long userId);
+    @Query("SELECT COUNT(s) FROM SuggestedActivity s WHERE s.moodEntry.id = :moodEntryId")
+    long countByMoodEntryId(@Param("moodEntryId") Long moodEntryId);
+
+    @Query("SELECT s.moodEntry.id, COUNT(s) FROM SuggestedActivity s WHERE s.moodEntry.id IN :moodEntryIds "
+            + "GROUP BY s.moodEntry.id")
+    List<Object[]> countByMoodEntryIds(@Param("moodEntryIds") Collection<Long> moodEntryIds);
 
-    @Query("SELECT COUNT(s) FROM SuggestedActivity s WHERE s.user.id = :userId AND s.suggestedDate = CURRENT_DATE")
-    long countTodayActivitiesByUserId(@Param("userId") Long userId);
+    @Query("SELECT COUNT(s) AS todayTotal, "
+            + "COALESCE(SUM(CASE WHEN s.isCompleted = true THEN 1 ELSE 0 END), 0) AS todayCompleted "
+            + "FROM SuggestedActivity s WHERE s.user.id = :userId AND s.suggestedDate = CURRENT_DATE")
+    TodayCountsRow getTodayCountsByUserId(@Param("userId") Long userId);
 
-    @Query("SELECT s FROM SuggestedActivity s WHERE s.user.id = :userId AND s.category = :category ORDER BY s.createdAt DESC")
-    List<SuggestedActivity> findByUserIdAndCategory(@Param("userId") Long userId,
+    @Query(RESPONSE_SELECT + "WHERE s.user.id = :userId AND s.category = :category ORDER BY s.createdAt DESC")
+    List<SuggestedActivityResponse> findByUserIdAndCategory(@Param("userId") Long userId,
             @Param("category") SuggestedActivity.ActivityCategory category);
+
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "" + MoodEntryRepository.EXPORT_FETCH_SIZE),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query(RESPONSE_SELECT + "WHERE s.user.id = :userId ORDER BY s.moodEntry.id, s.id")
+    Stream<SuggestedActivityResponse> streamExportByUserId(@Param("userId") Long userId);
+
+    interface TodayCountsRow {
+        long getTodayTotal();
+
+        long getTodayCompleted();
+    }
 }
@@ -0,0 +1,168 @@
+package com.mentalapp.service;
+
+import com.mentalapp.dto.EmotionResponse;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Emotion key to ancestor/root-category index built from a taxonomy snapshot.
+ *
+ * Each emotion gets a dense ordinal; parent, root and depth are stored in
+ * primitive arrays indexed by that ordinal, so resolving the category of an
+ * emotion is a map lookup followed by an array read, at any taxonomy depth.
+ */
+public final class EmotionCategoryIndex {
+
+    public static final int UNKNOWN = -1;
+
+    private final Map<String, Integer> ordinals;
+    private final String[] keys;
+    private final int[] parents;
+    private final int[] roots;
+    private final int[] depths;
+
+    private EmotionCategoryIndex(Map<String, Integer> ordinals, String[] keys, int[] parents, int[] roots,
+            int[] depths) {
+        this.ordinals = ordinals;
+        this.keys = keys;
+        this.parents = parents;
+        this.roots = roots;
+        this.depths = depths;
+    }
+
+    static EmotionCategoryIndex build(List<EmotionResponse> emotions) {
+        int size = emotions.size();
+        Map<String, Integer> ordinals = new HashMap<>(size * 2);
+        String[] keys = new String[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = emotions.get(i).getKey();
+            ordinals.put(keys[i], i);
+        }
+
+        int[] parents = new int[size];
+        for (int i = 0; i < size; i++) {
+            String parentKey = emotions.get(i).getParentKey();
+            Integer parent = parentKey != null ? ordinals.get(parentKey) : null;
+            parents[i] = parent != null ? parent : UNKNOWN;
+        }
+
+        int[] roots = new int[size];
+        int[] depths = new int[size];
+        Arrays.fill(roots, UNKNOWN);
+        for (int i = 0; i < size; i++) {
+            resolveRoot(i, parents, roots, depths);
+        }
+
+        return new EmotionCategoryIndex(Map.copyOf(ordinals), keys, parents, roots, depths);
+    }
+
+    private static void resolveRoot(int ordinal, int[] parents, int[] roots, int[] depths) {
+        if (roots[ordinal] != UNKNOWN) {
+            return;
+        }
+        // Walk up until a resolved node or a root; the hop limit guards against cycles in bad data
+        int current = ordinal;
+        int hops = 0;
+        while (parents[current] != UNKNOWN && roots[current] == UNKNOWN && hops < parents.length) {
+            current = parents[current];
+            hops++;
+        }
+        int root = roots[current] != UNKNOWN ? roots[current] : current;
+        int depth = roots[current] != UNKNOWN ? depths[current] + hops : hops;
+
+        current = ordinal;
+        while (roots[current] == UNKNOWN) {
+            roots[current] = root;
+            depths[current] = depth--;
+            if (parents[current] == UNKNOWN) {
+                break;
+            }
+            current = parents[current];
+        }
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    /**
+     * Dense ordinal of an emotion key, or {@link #UNKNOWN}
+     */
+    public int ordinalOf(String key) {
+        Integer ordinal = key != null ? ordinals.get(key) : null;
+        return ordinal != null ? ordinal : UNKNOWN;
+    }
+
+    public String keyOf(int ordinal) {
+        return keys[ordinal];
+    }
+
+    public int parentOf(int ordinal) {
+        return parents[ordinal];
+    }
+
+    public int rootOf(int ordinal) {
+        return roots[ordinal];
+    }
+
+    public int depthOf(int ordinal) {
+        return depths[ordinal];
+    }
+
+    public boolean isAncestor(int ancestor, int ordinal) {
+        for (int current = parents[ordinal]; current != UNKNOWN; current = parents[current]) {
+            if (current == ancestor) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Root category key of an emotion, or null when the key is not in the taxonomy
+     */
+    public String rootCategoryOf(String key) {
+        int ordinal = ordinalOf(key);
+        return ordinal != UNKNOWN ? keys[roots[ordinal]] : null;
+    }
+
+    /**
+     * Most frequent root category among the given emotion keys. Ties go to
+     * the category that reached the count first; unknown keys are ignored.
+     */
+    public String primaryCategory(List<String> emotionKeys, String fallback) {
+        if (emotionKeys == null || emotionKeys.isEmpty()) {
+            return fallback;
+        }
+        int n = emotionKeys.size();
+        int[] categories = new int[n];
+        int[] counts = new int[n];
+        int distinct = 0;
+        int best = UNKNOWN;
+        int bestCount = 0;
+
+        for (int i = 0; i < n; i++) {
+            int ordinal = ordinalOf(emotionKeys.get(i));
+            if (ordinal == UNKNOWN) {
+                continue;
+            }
+            int root = roots[ordinal];
+            int slot = 0;
+            while (slot < distinct && categories[slot] != root) {
+                slot++;
+            }
+            if (slot == distinct) {
+                categories[distinct++] = root;
+            }
+            int count = ++counts[slot];
+            if (count > bestCount) {
+                bestCount = count;
+                best = root;
+            }
+        }
+        return best != UNKNOWN ? keys[best] : fallback;
+    }
+}
@@ -0,0 +1,180 @@
+package com.mentalapp.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Counts of how often pairs of emotions appear in the same mood entry, for
+ * one user, indexed by taxonomy ordinal.
+ *
+ * Pair counts live in a packed upper-triangular int array (n(n-1)/2 slots),
+ * next to per-emotion counts and the number of entries counted. Rankings are
+ * computed lazily after a change and then served as slices, so a top-k read
+ * costs O(k). Not thread-safe; callers synchronize.
+ */
+public class EmotionCooccurrenceMatrix {
+
+    public enum Order {
+        COUNT,
+        LIFT
+    }
+
+    /** Pairs seen fewer times than this are left out of the lift ranking */
+    public static final int MIN_LIFT_SUPPORT = 2;
+
+    private final long taxonomyVersion;
+    private final int size;
+    private final int[] emotionCounts;
+    private final int[] pairCounts;
+    private int entryCount;
+    private int[] countRanking;
+    private int[] liftRanking;
+
+    public EmotionCooccurrenceMatrix(long taxonomyVersion, int size) {
+        this.taxonomyVersion = taxonomyVersion;
+        this.size = size;
+        this.emotionCounts = new int[size];
+        this.pairCounts = new int[size * (size - 1) / 2];
+    }
+
+    public long getTaxonomyVersion() {
+        return taxonomyVersion;
+    }
+
+    public int getEntryCount() {
+        return entryCount;
+    }
+
+    /**
+     * Add (sign 1) or remove (sign -1) one entry's emotions. Duplicate and
+     * unknown keys are ignored; an entry without known emotions is not counted.
+     */
+    public void apply(Collection<String> emotionKeys, EmotionCategoryIndex categoryIndex, int sign) {
+        int[] ordinals = distinctOrdinals(emotionKeys, categoryIndex);
+        if (ordinals.length == 0) {
+            return;
+        }
+        entryCount += sign;
+        for (int a = 0; a < ordinals.length; a++) {
+            emotionCounts[ordinals[a]] += sign;
+            for (int b = a + 1; b < ordinals.length; b++) {
+                pairCounts[pairIndex(ordinals[a], ordinals[b])] += sign;
+            }
+        }
+        countRanking = null;
+        liftRanking = null;
+    }
+
+    public int countOf(int first, int second) {
+        return pairCounts[pairIndex(first, second)];
+    }
+
+    /**
+     * Lift of a pair: how much more often the two appear together than if
+     * they were independent (1.0 = no association)
+     */
+    public double liftOf(int first, int second) {
+        long expected = (long) emotionCounts[first] * emotionCounts[second];
+        return expected > 0 ? (double) countOf(first, second) * entryCount / expected : 0.0;
+    }
+
+    /**
+     * Up to {@code limit} pairs, best first, as packed {@code first << 16 | second} ordinals
+     */
+    public int[] top(Order order, int limit) {
+        int[] ranking = order == Order.LIFT ? liftRanking() : countRanking();
+        return Arrays.copyOf(ranking, Math.min(limit, ranking.length));
+    }
+
+    public static int firstOf(int pair) {
+        return pair >>> 16;
+    }
+
+    public static int secondOf(int pair) {
+        return pair & 0xFFFF;
+    }
+
+    private int[] countRanking() {
+        if (countRanking == null) {
+            List<Long> keyed = new ArrayList<>();
+            forEachPair((first, second, count) -> keyed.add(
+                    ((long) (Integer.MAX_VALUE - count) << 32) | ((first << 16 | second) & 0xFFFFFFFFL)));
+            long[] keys = keyed.stream().mapToLong(Long::longValue).toArray();
+            Arrays.sort(keys);
+            countRanking = new int[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                countRanking[i] = (int) keys[i];
+            }
+        }
+        return countRanking;
+    }
+
+    private int[] liftRanking() {
+        if (liftRanking == null) {
+            List<Integer> pairs = new ArrayList<>();
+            forEachPair((first, second, count) -> {
+                if (count >= MIN_LIFT_SUPPORT) {
+                    pairs.add(first << 16 | second);
+                }
+            });
+            pairs.sort((a, b) -> {
+                int byLift = Double.compare(liftOf(firstOf(b), secondOf(b)), liftOf(firstOf(a), secondOf(a)));
+                return byLift != 0 ? byLift : Integer.compare(a, b);
+            });
+            liftRanking = pairs.stream().mapToInt(Integer::intValue).toArray();
+        }
+        return liftRanking;
+    }
+
+    private void forEachPair(PairVisitor visitor) {
+        int index = 0;
+        for (int first = 0; first < size; first++) {
+            for (int second = first + 1; second < size; second++, index++) {
+                if (pairCounts[index] > 0) {
+                    visitor.visit(first, second, pairCounts[index]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Slot of (first, second) in the row-major upper triangle, first < second
+     */
+    private int pairIndex(int first, int second) {
+        if (first > second) {
+            int swap = first;
+            first = second;
+            second = swap;
+        }
+        return first * (2 * size - first - 1) / 2 + (second - first - 1);
+    }
+
+    private static int[] distinctOrdinals(Collection<String> emotionKeys, EmotionCategoryIndex categoryIndex) {
+        if (emotionKeys == null || emotionKeys.isEmpty()) {
+            return new int[0];
+        }
+        int[] ordinals = new int[emotionKeys.size()];
+        int count = 0;
+        for (String key : emotionKeys) {
+            int ordinal = categoryIndex.ordinalOf(key);
+            if (ordinal == EmotionCategoryIndex.UNKNOWN) {
+                continue;
+            }
+            boolean seen = false;
+            for (int i = 0; i < count && !seen; i++) {
+                seen = ordinals[i] == ordinal;
+            }
+            if (!seen) {
+                ordinals[count++] = ordinal;
+            }
+        }
+        return Arrays.copyOf(ordinals, count);
+    }
+
+    @FunctionalInterface
+    private interface PairVisitor {
+        void visit(int first, int second, int count);
+    }
+}
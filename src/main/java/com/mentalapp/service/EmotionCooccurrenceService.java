@@ -0,0 +1,164 @@
+package com.mentalapp.service;
+
+import com.mentalapp.config.CooccurrenceProperties;
+import com.mentalapp.dto.EmotionCooccurrenceResponse;
+import com.mentalapp.repository.MoodEntryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Per-user emotion co-occurrence matrices.
+ *
+ * A user's matrix is built from their history on first use and then kept
+ * current by applying each committed mood entry change as a delta. Matrices
+ * are rebuilt when the taxonomy (and with it the ordinals) changes. As with
+ * the statistics cache, a per-user version guards against installing a
+ * build that missed a concurrent commit.
+ */
+@Service
+@Slf4j
+public class EmotionCooccurrenceService {
+
+    private final MoodEntryRepository moodEntryRepository;
+    private final EmotionService emotionService;
+    private final CooccurrenceProperties properties;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ConcurrentHashMap<Long, Slot> slots = new ConcurrentHashMap<>();
+
+    public EmotionCooccurrenceService(MoodEntryRepository moodEntryRepository, EmotionService emotionService,
+            CooccurrenceProperties properties, PlatformTransactionManager transactionManager) {
+        this.moodEntryRepository = moodEntryRepository;
+        this.emotionService = emotionService;
+        this.properties = properties;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * The user's top {@code limit} emotion pairs by co-occurrence count or lift
+     */
+    public EmotionCooccurrenceResponse getTopPairs(Long userId, EmotionCooccurrenceMatrix.Order order, int limit) {
+        EmotionTaxonomySnapshot taxonomy = emotionService.getTaxonomySnapshot();
+        EmotionCategoryIndex categoryIndex = taxonomy.getCategoryIndex();
+        Slot slot = slot(userId);
+
+        EmotionCooccurrenceMatrix matrix = slot.matrix;
+        if (matrix == null || matrix.getTaxonomyVersion() != taxonomy.getVersion()) {
+            long version = slot.version;
+            matrix = build(userId, taxonomy);
+            synchronized (slot) {
+                if (slot.version == version) {
+                    slot.matrix = matrix;
+                }
+            }
+        }
+
+        synchronized (slot) {
+            int[] top = matrix.top(order, limit);
+            List<EmotionCooccurrenceResponse.Pair> pairs = new ArrayList<>(top.length);
+            for (int pair : top) {
+                int first = EmotionCooccurrenceMatrix.firstOf(pair);
+                int second = EmotionCooccurrenceMatrix.secondOf(pair);
+                pairs.add(EmotionCooccurrenceResponse.Pair.builder()
+                        .first(categoryIndex.keyOf(first))
+                        .second(categoryIndex.keyOf(second))
+                        .count(matrix.countOf(first, second))
+                        .lift(matrix.liftOf(first, second))
+                        .build());
+            }
+            return EmotionCooccurrenceResponse.builder()
+                    .entryCount(matrix.getEntryCount())
+                    .orderBy(order)
+                    .pairs(pairs)
+                    .build();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onEmotionsChanged(MoodEntryEmotionsChangedEvent event) {
+        Slot slot = slots.get(event.getUserId());
+        if (slot == null) {
+            return;
+        }
+        EmotionTaxonomySnapshot taxonomy = emotionService.getTaxonomySnapshot();
+        synchronized (slot) {
+            slot.version++;
+            EmotionCooccurrenceMatrix matrix = slot.matrix;
+            if (matrix == null || matrix.getTaxonomyVersion() != taxonomy.getVersion()) {
+                slot.matrix = null;
+                return;
+            }
+            matrix.apply(event.getPreviousEmotionKeys(), taxonomy.getCategoryIndex(), -1);
+            matrix.apply(event.getEmotionKeys(), taxonomy.getCategoryIndex(), 1);
+        }
+    }
+
+    /**
+     * Drop the user's matrix so it is rebuilt from the database on next use
+     */
+    public void invalidate(Long userId) {
+        Slot slot = slots.get(userId);
+        if (slot == null) {
+            return;
+        }
+        synchronized (slot) {
+            slot.version++;
+            slot.matrix = null;
+        }
+    }
+
+    public void invalidateAll() {
+        slots.clear();
+    }
+
+    private EmotionCooccurrenceMatrix build(Long userId, EmotionTaxonomySnapshot taxonomy) {
+        EmotionCategoryIndex categoryIndex = taxonomy.getCategoryIndex();
+        EmotionCooccurrenceMatrix matrix = new EmotionCooccurrenceMatrix(taxonomy.getVersion(),
+                categoryIndex.size());
+        readOnlyTransaction.executeWithoutResult(status -> {
+            // Rows come ordered by entry id, so each entry's keys are contiguous
+            try (Stream<Object[]> rows = moodEntryRepository.streamEmotionKeysByUserId(userId)) {
+                List<String> keys = new ArrayList<>();
+                Long currentEntryId = null;
+                for (Iterator<Object[]> it = rows.iterator(); it.hasNext(); ) {
+                    Object[] row = it.next();
+                    if (!row[0].equals(currentEntryId)) {
+                        matrix.apply(keys, categoryIndex, 1);
+                        keys.clear();
+                        currentEntryId = (Long) row[0];
+                    }
+                    keys.add((String) row[1]);
+                }
+                matrix.apply(keys, categoryIndex, 1);
+            }
+        });
+        log.debug("Built emotion co-occurrence matrix for user {} from {} entries", userId, matrix.getEntryCount());
+        return matrix;
+    }
+
+    private Slot slot(Long userId) {
+        Slot slot = slots.get(userId);
+        if (slot != null) {
+            return slot;
+        }
+        if (slots.size() >= properties.getMaxUsers()) {
+            slots.clear();
+        }
+        return slots.computeIfAbsent(userId, id -> new Slot());
+    }
+
+    private static final class Slot {
+        private volatile long version;
+        private volatile EmotionCooccurrenceMatrix matrix;
+    }
+}
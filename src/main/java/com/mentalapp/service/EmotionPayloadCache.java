@@ -0,0 +1,149 @@
+package com.mentalapp.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Pre-encoded JSON bodies for the hot taxonomy endpoints.
+ *
+ * Payloads are rendered once per taxonomy snapshot, in identity and gzip
+ * form, together with a strong ETag derived from the content. A new snapshot
+ * invalidates the whole set on the next request.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EmotionPayloadCache {
+
+    private final EmotionService emotionService;
+    private final ObjectMapper objectMapper;
+
+    private volatile RenderedPayloads rendered;
+
+    public enum Payload {
+        TAXONOMY,
+        DROPDOWN
+    }
+
+    /**
+     * Encoded payload for the current taxonomy snapshot, rendering it if the snapshot changed
+     */
+    public EncodedPayload get(Payload payload) {
+        EmotionTaxonomySnapshot snapshot = emotionService.getTaxonomySnapshot();
+        RenderedPayloads current = rendered;
+        if (current == null || current.version != snapshot.getVersion()) {
+            synchronized (this) {
+                current = rendered;
+                if (current == null || current.version != snapshot.getVersion()) {
+                    current = render(snapshot);
+                    rendered = current;
+                }
+            }
+        }
+        return current.payloads.get(payload);
+    }
+
+    private RenderedPayloads render(EmotionTaxonomySnapshot snapshot) {
+        Map<Payload, EncodedPayload> payloads = new EnumMap<>(Payload.class);
+        payloads.put(Payload.TAXONOMY, encode(snapshot.getTaxonomy()));
+        payloads.put(Payload.DROPDOWN, encode(snapshot.getDropdown()));
+        log.info("Rendered taxonomy payloads for snapshot v{}", snapshot.getVersion());
+        return new RenderedPayloads(snapshot.getVersion(), payloads);
+    }
+
+    private EncodedPayload encode(Object body) {
+        try {
+            byte[] identity = objectMapper.writeValueAsBytes(body);
+            return new EncodedPayload(identity, gzip(identity), etag(identity));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize taxonomy payload", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static String etag(byte[] data) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(data);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest).substring(0, 27);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class RenderedPayloads {
+        private final long version;
+        private final Map<Payload, EncodedPayload> payloads;
+
+        private RenderedPayloads(long version, Map<Payload, EncodedPayload> payloads) {
+            this.version = version;
+            this.payloads = payloads;
+        }
+    }
+
+    /**
+     * One payload in both encodings. The gzip variant gets its own strong ETag
+     * since it is a different byte representation.
+     */
+    public static final class EncodedPayload {
+        private final byte[] identity;
+        private final byte[] gzip;
+        private final String identityEtag;
+        private final String gzipEtag;
+
+        private EncodedPayload(byte[] identity, byte[] gzip, String hash) {
+            this.identity = identity;
+            this.gzip = gzip;
+            this.identityEtag = "\"" + hash + "\"";
+            this.gzipEtag = "\"" + hash + "-gzip\"";
+        }
+
+        public byte[] body(boolean gzipped) {
+            return gzipped ? gzip : identity;
+        }
+
+        public String etag(boolean gzipped) {
+            return gzipped ? gzipEtag : identityEtag;
+        }
+
+        /**
+         * Whether an If-None-Match header value matches either representation
+         */
+        public boolean matches(String ifNoneMatch) {
+            if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+                return false;
+            }
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if (tag.equals("*") || tag.equals(identityEtag) || tag.equals(gzipEtag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package com.mentalapp.service;
+
+import com.mentalapp.dto.EmotionResponse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * In-process typeahead index over emotion labels and keys.
+ *
+ * Matches are looked up in a prefix trie (whole label/key and individual
+ * label words), then in a trigram index for infix matches, and finally by
+ * bounded edit distance for typos. Results are ranked by match tier, then
+ * roots before children, then label.
+ */
+public final class EmotionSearchIndex {
+
+    public static final int MAX_LIMIT = 100;
+
+    private static final int EXACT = 0;
+    private static final int PREFIX = 1;
+    private static final int WORD_PREFIX = 2;
+    private static final int INFIX = 3;
+    private static final int FUZZY = 4;
+    private static final int NO_MATCH = Integer.MAX_VALUE;
+
+    private static final int GRAM = 3;
+    private static final int[] EMPTY = new int[0];
+
+    private final List<EmotionResponse> emotions;
+    private final int[] depths;
+    private final String[] labels;
+    private final String[] keys;
+    private final String[][] terms;
+    private final TrieNode trie;
+    private final Map<String, int[]> grams;
+
+    private EmotionSearchIndex(List<EmotionResponse> emotions, int[] depths, String[] labels, String[] keys,
+            String[][] terms, TrieNode trie, Map<String, int[]> grams) {
+        this.emotions = emotions;
+        this.depths = depths;
+        this.labels = labels;
+        this.keys = keys;
+        this.terms = terms;
+        this.trie = trie;
+        this.grams = grams;
+    }
+
+    static EmotionSearchIndex build(List<EmotionResponse> emotions, EmotionCategoryIndex categoryIndex) {
+        int size = emotions.size();
+        int[] depths = new int[size];
+        String[] labels = new String[size];
+        String[] keys = new String[size];
+        String[][] terms = new String[size][];
+        TrieBuilder trie = new TrieBuilder();
+        Map<String, Set<Integer>> grams = new HashMap<>();
+
+        for (int i = 0; i < size; i++) {
+            EmotionResponse emotion = emotions.get(i);
+            depths[i] = categoryIndex.depthOf(i);
+            labels[i] = normalize(emotion.getLabel());
+            keys[i] = normalize(emotion.getKey());
+
+            Set<String> own = new LinkedHashSet<>();
+            own.add(labels[i]);
+            own.add(keys[i]);
+            for (String term : own) {
+                trie.insert(term, i, false);
+                addGrams(term, i, grams);
+            }
+            Set<String> words = new LinkedHashSet<>(Arrays.asList(labels[i].split(" ")));
+            words.addAll(Arrays.asList(keys[i].split(" ")));
+            words.removeAll(own);
+            words.remove("");
+            for (String word : words) {
+                trie.insert(word, i, true);
+            }
+            own.addAll(words);
+            terms[i] = own.toArray(new String[0]);
+        }
+
+        Map<String, int[]> frozenGrams = new HashMap<>(grams.size() * 2);
+        grams.forEach((gram, ordinals) -> frozenGrams.put(gram, ordinals.stream().mapToInt(Integer::intValue).toArray()));
+
+        return new EmotionSearchIndex(emotions, depths, labels, keys, terms, trie.freeze(), Map.copyOf(frozenGrams));
+    }
+
+    private static void addGrams(String term, int ordinal, Map<String, Set<Integer>> grams) {
+        for (int i = 0; i + GRAM <= term.length(); i++) {
+            grams.computeIfAbsent(term.substring(i, i + GRAM), g -> new LinkedHashSet<>()).add(ordinal);
+        }
+    }
+
+    static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT).replace('_', ' ');
+    }
+
+    /**
+     * Ranked matches for a typeahead query, at most {@code limit} results
+     */
+    public List<EmotionResponse> search(String query, int limit) {
+        String q = normalize(query);
+        int max = Math.max(1, Math.min(limit, MAX_LIMIT));
+        if (q.isEmpty()) {
+            return List.of();
+        }
+
+        int[] tiers = new int[emotions.size()];
+        Arrays.fill(tiers, NO_MATCH);
+        int matched = 0;
+
+        matched += matchPrefixes(q, tiers);
+        matched += matchInfixes(q, tiers);
+        if (matched < max && q.length() >= GRAM) {
+            matchFuzzy(q, tiers);
+        }
+
+        List<Integer> hits = new ArrayList<>();
+        for (int i = 0; i < tiers.length; i++) {
+            if (tiers[i] != NO_MATCH) {
+                hits.add(i);
+            }
+        }
+        hits.sort((a, b) -> {
+            if (tiers[a] != tiers[b]) {
+                return Integer.compare(tiers[a], tiers[b]);
+            }
+            if (depths[a] != depths[b]) {
+                return Integer.compare(depths[a], depths[b]);
+            }
+            return labels[a].compareTo(labels[b]);
+        });
+
+        List<EmotionResponse> results = new ArrayList<>(Math.min(max, hits.size()));
+        for (int i = 0; i < hits.size() && i < max; i++) {
+            results.add(emotions.get(hits.get(i)));
+        }
+        return results;
+    }
+
+    private int matchPrefixes(String q, int[] tiers) {
+        TrieNode node = trie.find(q);
+        if (node == null) {
+            return 0;
+        }
+        int matched = 0;
+        for (int posting : node.postings) {
+            int ordinal = posting >>> 1;
+            int tier;
+            if (labels[ordinal].equals(q) || keys[ordinal].equals(q)) {
+                tier = EXACT;
+            } else {
+                tier = (posting & 1) == 1 ? WORD_PREFIX : PREFIX;
+            }
+            if (tiers[ordinal] == NO_MATCH) {
+                matched++;
+            }
+            tiers[ordinal] = Math.min(tiers[ordinal], tier);
+        }
+        return matched;
+    }
+
+    private int matchInfixes(String q, int[] tiers) {
+        int[] candidates = q.length() >= GRAM ? gramCandidates(q) : null;
+        int matched = 0;
+        int count = candidates != null ? candidates.length : emotions.size();
+        for (int c = 0; c < count; c++) {
+            int ordinal = candidates != null ? candidates[c] : c;
+            if (tiers[ordinal] != NO_MATCH) {
+                continue;
+            }
+            if (labels[ordinal].contains(q) || keys[ordinal].contains(q)) {
+                tiers[ordinal] = INFIX;
+                matched++;
+            }
+        }
+        return matched;
+    }
+
+    private int[] gramCandidates(String q) {
+        int[] result = null;
+        for (int i = 0; i + GRAM <= q.length(); i++) {
+            int[] postings = grams.getOrDefault(q.substring(i, i + GRAM), EMPTY);
+            result = result == null ? postings : intersect(result, postings);
+            if (result.length == 0) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int n = 0;
+        for (int x : a) {
+            for (int y : b) {
+                if (x == y) {
+                    out[n++] = x;
+                    break;
+                }
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    private void matchFuzzy(String q, int[] tiers) {
+        int maxEdits = q.length() <= 4 ? 1 : 2;
+        for (int ordinal = 0; ordinal < tiers.length; ordinal++) {
+            if (tiers[ordinal] != NO_MATCH) {
+                continue;
+            }
+            for (String term : terms[ordinal]) {
+                // Typeahead input is usually a partial word, so compare against the term prefix as well
+                String prefix = term.length() > q.length() ? term.substring(0, q.length()) : term;
+                if (withinDistance(q, prefix, maxEdits) || withinDistance(q, term, maxEdits)) {
+                    tiers[ordinal] = FUZZY;
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Levenshtein distance check that gives up as soon as a row exceeds the bound
+     */
+    static boolean withinDistance(String a, String b, int maxEdits) {
+        if (Math.abs(a.length() - b.length()) > maxEdits) {
+            return false;
+        }
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > maxEdits) {
+                return false;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()] <= maxEdits;
+    }
+
+    private static final class TrieNode {
+        private final char[] edges;
+        private final TrieNode[] children;
+        private final int[] postings;
+
+        private TrieNode(char[] edges, TrieNode[] children, int[] postings) {
+            this.edges = edges;
+            this.children = children;
+            this.postings = postings;
+        }
+
+        private TrieNode find(String prefix) {
+            TrieNode node = this;
+            for (int i = 0; i < prefix.length() && node != null; i++) {
+                int idx = Arrays.binarySearch(node.edges, prefix.charAt(i));
+                node = idx >= 0 ? node.children[idx] : null;
+            }
+            return node;
+        }
+    }
+
+    /**
+     * Mutable trie used while building; postings pack {@code ordinal << 1 | isWord}
+     */
+    private static final class TrieBuilder {
+        private final TreeMap<Character, TrieBuilder> children = new TreeMap<>();
+        private final Map<Integer, Integer> postings = new HashMap<>();
+
+        private void insert(String term, int ordinal, boolean word) {
+            TrieBuilder node = this;
+            for (int i = 0; i < term.length(); i++) {
+                node = node.children.computeIfAbsent(term.charAt(i), c -> new TrieBuilder());
+                // Keep the strongest match kind per emotion: whole term (0) beats word (1)
+                node.postings.merge(ordinal, word ? 1 : 0, Math::min);
+            }
+        }
+
+        private TrieNode freeze() {
+            char[] edges = new char[children.size()];
+            TrieNode[] frozen = new TrieNode[children.size()];
+            int i = 0;
+            for (Map.Entry<Character, TrieBuilder> child : children.entrySet()) {
+                edges[i] = child.getKey();
+                frozen[i++] = child.getValue().freeze();
+            }
+            int[] packed = postings.entrySet().stream()
+                    .mapToInt(e -> e.getKey() << 1 | e.getValue())
+                    .sorted()
+                    .toArray();
+            return new TrieNode(edges, frozen, packed);
+        }
+    }
+}
@@ -1,116 +1,226 @@
 package com.mentalapp.service;
 
+import com.mentalapp.dto.EmotionResponse;
 import com.mentalapp.entity.Emotion;
 import com.mentalapp.repository.EmotionRepository;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Serves the emotion taxonomy from an immutable in-memory snapshot.
+ *
+ * The snapshot is loaded once (at startup, or on first use) and replaced
+ * wholesale after any committed change to the emotions table, so reads never
+ * open a transaction or borrow a database connection.
+ */
 @Service
-@RequiredArgsConstructor
 @Slf4j
-@Transactional
 public class EmotionService {
-    
+
     private final EmotionRepository emotionRepository;
-    
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate primaryRead;
+
+    private final AtomicLong versions = new AtomicLong();
+
+    private volatile EmotionTaxonomySnapshot snapshot;
+
+    public EmotionService(EmotionRepository emotionRepository, ApplicationEventPublisher eventPublisher,
+            PlatformTransactionManager transactionManager) {
+        this.emotionRepository = emotionRepository;
+        this.eventPublisher = eventPublisher;
+        // Snapshots are kept until the next change, so they are never loaded from a lagging read replica
+        this.primaryRead = new TransactionTemplate(transactionManager);
+        this.primaryRead.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            getTaxonomySnapshot();
+        } catch (RuntimeException e) {
+            log.warn("Could not preload emotion taxonomy, it will be loaded on first use", e);
+        }
+    }
+
+    /**
+     * Current taxonomy snapshot, loading it on first access
+     */
+    public EmotionTaxonomySnapshot getTaxonomySnapshot() {
+        EmotionTaxonomySnapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null) {
+                    current = loadSnapshot();
+                    snapshot = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Rebuild the snapshot from the database and swap it in, unless a refresh
+     * that started later has already installed a newer one
+     */
+    public EmotionTaxonomySnapshot refreshTaxonomy() {
+        EmotionTaxonomySnapshot fresh = loadSnapshot();
+        synchronized (this) {
+            EmotionTaxonomySnapshot current = snapshot;
+            if (current != null && current.getVersion() > fresh.getVersion()) {
+                return current;
+            }
+            snapshot = fresh;
+        }
+        return fresh;
+    }
+
+    private EmotionTaxonomySnapshot loadSnapshot() {
+        // Numbered before reading, so a higher version never holds older rows
+        long version = versions.incrementAndGet();
+        List<Emotion> emotions = primaryRead.execute(status -> emotionRepository.findAllWithParent());
+        EmotionTaxonomySnapshot loaded = EmotionTaxonomySnapshot.build(version, emotions);
+        log.info("Loaded emotion taxonomy snapshot v{} with {} emotions", loaded.getVersion(), loaded.size());
+        return loaded;
+    }
+
+    /**
+     * Create or update an emotion; the snapshot is refreshed once the transaction commits
+     */
+    @Transactional
+    public Emotion saveEmotion(Emotion emotion) {
+        Emotion saved = emotionRepository.save(emotion);
+        refreshTaxonomyAfterCommit();
+        return saved;
+    }
+
+    /**
+     * Delete an emotion (and, through the FK cascade, its sub-emotions)
+     */
+    @Transactional
+    public boolean deleteEmotion(String key) {
+        Optional<Emotion> emotion = emotionRepository.findByKey(key);
+        if (emotion.isEmpty()) {
+            return false;
+        }
+        emotionRepository.delete(emotion.get());
+        refreshTaxonomyAfterCommit();
+        return true;
+    }
+
+    private void refreshTaxonomyAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            refreshAndAnnounce();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                refreshAndAnnounce();
+            }
+        });
+    }
+
+    private void refreshAndAnnounce() {
+        EmotionTaxonomySnapshot fresh = refreshTaxonomy();
+        eventPublisher.publishEvent(new EmotionTaxonomyChangedEvent(fresh.getVersion()));
+    }
+
     /**
      * Get all emotions
      */
-    @Transactional(readOnly = true)
-    public List<Emotion> getAllEmotions() {
-        return emotionRepository.findAll();
+    public List<EmotionResponse> getAllEmotions() {
+        return getTaxonomySnapshot().getAll();
     }
-    
+
     /**
      * Get emotion by key
      */
-    @Transactional(readOnly = true)
-    public Optional<Emotion> getEmotionByKey(String key) {
-        return emotionRepository.findByKey(key);
+    public Optional<EmotionResponse> getEmotionByKey(String key) {
+        return getTaxonomySnapshot().findByKey(key);
     }
-    
+
     /**
      * Get all root emotions (main categories for dropdown)
      */
-    @Transactional(readOnly = true)
-    public List<Emotion> getRootEmotions() {
-        return emotionRepository.findRootEmotions();
+    public List<EmotionResponse> getRootEmotions() {
+        return getTaxonomySnapshot().getRoots();
     }
-    
+
     /**
      * Get emotions by parent key (sub-emotions for dropdown)
      */
-    @Transactional(readOnly = true)
-    public List<Emotion> getEmotionsByParentKey(String parentKey) {
-        return emotionRepository.findByParentKey(parentKey);
+    public List<EmotionResponse> getEmotionsByParentKey(String parentKey) {
+        return getTaxonomySnapshot().getChildren(parentKey);
     }
-    
+
     /**
      * Get full emotion wheel taxonomy with hierarchy (for nested dropdowns)
      */
-    @Transactional(readOnly = true)
-    public List<Emotion> getEmotionWheelTaxonomy() {
-        return emotionRepository.findRootEmotionsWithChildren();
+    public List<EmotionResponse> getEmotionWheelTaxonomy() {
+        return getTaxonomySnapshot().getTaxonomy();
     }
-    
+
     /**
-     * Search emotions by label
+     * Typeahead search over labels and keys (prefix, infix and typo-tolerant matches)
      */
-    @Transactional(readOnly = true)
-    public List<Emotion> searchEmotionsByLabel(String searchTerm) {
-        return emotionRepository.findByLabelContainingIgnoreCase(searchTerm);
+    public List<EmotionResponse> searchEmotions(String searchTerm, int limit) {
+        return getTaxonomySnapshot().getSearchIndex().search(searchTerm, limit);
     }
-    
+
     /**
      * Get all emotions formatted for dropdown (both root and children)
      */
-    @Transactional(readOnly = true)
-    public List<Emotion> getAllEmotionsForDropdown() {
-        return emotionRepository.findAllForDropdown();
+    public List<EmotionResponse> getAllEmotionsForDropdown() {
+        return getTaxonomySnapshot().getDropdown();
     }
-    
+
     /**
      * Get emotions by category
      */
-    @Transactional(readOnly = true)
-    public List<Emotion> getEmotionsByCategory(String categoryKey) {
-        return emotionRepository.findByCategory(categoryKey);
+    public List<EmotionResponse> getEmotionsByCategory(String categoryKey) {
+        return getTaxonomySnapshot().getCategory(categoryKey);
     }
-    
+
     /**
      * Get sub-emotions only (for two-level dropdown)
      */
-    @Transactional(readOnly = true)
-    public List<Emotion> getSubEmotions() {
-        return emotionRepository.findSubEmotions();
+    public List<EmotionResponse> getSubEmotions() {
+        return getTaxonomySnapshot().getSubEmotions();
     }
-    
+
     /**
      * Get sub-emotions ordered by parent (for grouped dropdown)
      */
-    @Transactional(readOnly = true)
-    public List<Emotion> getSubEmotionsOrderedByParent() {
-        return emotionRepository.findSubEmotionsOrderedByParent();
+    public List<EmotionResponse> getSubEmotionsOrderedByParent() {
+        return getTaxonomySnapshot().getSubEmotionsByParentLabel();
     }
-    
+
     /**
      * Check if emotion exists
      */
-    @Transactional(readOnly = true)
     public boolean emotionExists(String key) {
-        return emotionRepository.existsByKey(key);
+        return getTaxonomySnapshot().contains(key);
     }
-    
+
     /**
      * Get emotions for specific dropdown scenarios
      */
-    @Transactional(readOnly = true)
-    public List<Emotion> getEmotionsForDropdown(String type) {
+    public List<EmotionResponse> getEmotionsForDropdown(String type) {
         switch (type.toLowerCase()) {
             case "main":
                 return getRootEmotions();
@@ -125,7 +235,3 @@ public class EmotionService {
         }
     }
 }
-
-
-
-
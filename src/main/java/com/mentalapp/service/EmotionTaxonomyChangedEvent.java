@@ -0,0 +1,13 @@
+package com.mentalapp.service;
+
+import lombok.Value;
+
+/**
+ * Published after a committed change to the emotions table has been loaded
+ * into a new snapshot on this node
+ */
+@Value
+public class EmotionTaxonomyChangedEvent {
+
+    long version;
+}
@@ -0,0 +1,222 @@
+package com.mentalapp.service;
+
+import com.mentalapp.dto.EmotionResponse;
+import com.mentalapp.entity.Emotion;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Immutable, pre-sorted copy of the emotion taxonomy.
+ *
+ * Every list handed out is unmodifiable and shared between requests, so a
+ * snapshot can be read concurrently without locking. Changes to the taxonomy
+ * never mutate a snapshot; {@link EmotionService} builds a new one and swaps
+ * the reference.
+ */
+public final class EmotionTaxonomySnapshot {
+
+    private static final Comparator<EmotionResponse> BY_LABEL = Comparator.comparing(EmotionResponse::getLabel);
+
+    private final long version;
+    private final List<EmotionResponse> all;
+    private final List<EmotionResponse> roots;
+    private final List<EmotionResponse> taxonomy;
+    private final List<EmotionResponse> dropdown;
+    private final List<EmotionResponse> subEmotions;
+    private final List<EmotionResponse> subEmotionsByParentLabel;
+    private final Map<String, EmotionResponse> byKey;
+    private final Map<String, List<EmotionResponse>> childrenByParent;
+    private final Map<String, List<EmotionResponse>> byCategory;
+    private final EmotionCategoryIndex categoryIndex;
+    private final EmotionSearchIndex searchIndex;
+
+    private EmotionTaxonomySnapshot(long version, List<EmotionResponse> all, List<EmotionResponse> roots,
+            List<EmotionResponse> taxonomy, List<EmotionResponse> dropdown, List<EmotionResponse> subEmotions,
+            List<EmotionResponse> subEmotionsByParentLabel, Map<String, EmotionResponse> byKey,
+            Map<String, List<EmotionResponse>> childrenByParent, Map<String, List<EmotionResponse>> byCategory,
+            EmotionCategoryIndex categoryIndex, EmotionSearchIndex searchIndex) {
+        this.version = version;
+        this.all = all;
+        this.roots = roots;
+        this.taxonomy = taxonomy;
+        this.dropdown = dropdown;
+        this.subEmotions = subEmotions;
+        this.subEmotionsByParentLabel = subEmotionsByParentLabel;
+        this.byKey = byKey;
+        this.childrenByParent = childrenByParent;
+        this.byCategory = byCategory;
+        this.categoryIndex = categoryIndex;
+        this.searchIndex = searchIndex;
+    }
+
+    /**
+     * Build a snapshot from emotions whose parent association is already initialized
+     */
+    public static EmotionTaxonomySnapshot build(long version, List<Emotion> emotions) {
+        List<EmotionResponse> all = new ArrayList<>(emotions.size());
+        Map<String, EmotionResponse> byKey = new HashMap<>();
+        Map<String, List<EmotionResponse>> children = new HashMap<>();
+
+        for (Emotion emotion : emotions) {
+            String parentKey = emotion.getParent() != null ? emotion.getParent().getKey() : null;
+            EmotionResponse node = EmotionResponse.builder()
+                    .id(emotion.getId())
+                    .key(emotion.getKey())
+                    .label(emotion.getLabel())
+                    .parentKey(parentKey)
+                    .build();
+            all.add(node);
+            byKey.put(node.getKey(), node);
+            if (parentKey != null) {
+                children.computeIfAbsent(parentKey, k -> new ArrayList<>()).add(node);
+            }
+        }
+
+        List<EmotionResponse> roots = new ArrayList<>();
+        for (EmotionResponse node : all) {
+            if (node.getParentKey() == null) {
+                roots.add(node);
+            }
+        }
+        roots.sort(BY_LABEL);
+
+        Map<String, List<EmotionResponse>> childrenByParent = new HashMap<>();
+        children.forEach((parentKey, list) -> {
+            list.sort(BY_LABEL);
+            childrenByParent.put(parentKey, List.copyOf(list));
+        });
+
+        List<EmotionResponse> taxonomy = new ArrayList<>(roots.size());
+        for (EmotionResponse root : roots) {
+            taxonomy.add(withChildren(root, childrenByParent));
+        }
+
+        List<EmotionResponse> subEmotions = new ArrayList<>();
+        for (EmotionResponse node : all) {
+            if (node.getParentKey() != null) {
+                subEmotions.add(node);
+            }
+        }
+        List<EmotionResponse> subEmotionsByParentLabel = new ArrayList<>(subEmotions);
+        subEmotions.sort(Comparator.comparing(EmotionResponse::getParentKey).thenComparing(BY_LABEL));
+        subEmotionsByParentLabel.sort(Comparator
+                .comparing((EmotionResponse node) -> parentLabel(node, byKey))
+                .thenComparing(BY_LABEL));
+
+        List<EmotionResponse> dropdown = new ArrayList<>(all.size());
+        dropdown.addAll(roots);
+        dropdown.addAll(subEmotions);
+
+        Map<String, List<EmotionResponse>> byCategory = new HashMap<>();
+        for (EmotionResponse node : all) {
+            List<EmotionResponse> category = new ArrayList<>();
+            category.add(node);
+            category.addAll(childrenByParent.getOrDefault(node.getKey(), List.of()));
+            category.sort(BY_LABEL);
+            byCategory.put(node.getKey(), List.copyOf(category));
+        }
+
+        EmotionCategoryIndex categoryIndex = EmotionCategoryIndex.build(all);
+        return new EmotionTaxonomySnapshot(version,
+                Collections.unmodifiableList(all),
+                List.copyOf(roots),
+                List.copyOf(taxonomy),
+                List.copyOf(dropdown),
+                List.copyOf(subEmotions),
+                List.copyOf(subEmotionsByParentLabel),
+                Collections.unmodifiableMap(byKey),
+                Collections.unmodifiableMap(childrenByParent),
+                Collections.unmodifiableMap(byCategory),
+                categoryIndex,
+                EmotionSearchIndex.build(all, categoryIndex));
+    }
+
+    private static EmotionResponse withChildren(EmotionResponse node,
+            Map<String, List<EmotionResponse>> childrenByParent) {
+        List<EmotionResponse> children = childrenByParent.getOrDefault(node.getKey(), List.of());
+        List<EmotionResponse> nested = new ArrayList<>(children.size());
+        for (EmotionResponse child : children) {
+            nested.add(withChildren(child, childrenByParent));
+        }
+        return EmotionResponse.builder()
+                .id(node.getId())
+                .key(node.getKey())
+                .label(node.getLabel())
+                .parentKey(node.getParentKey())
+                .children(List.copyOf(nested))
+                .build();
+    }
+
+    private static String parentLabel(EmotionResponse node, Map<String, EmotionResponse> byKey) {
+        EmotionResponse parent = byKey.get(node.getParentKey());
+        return parent != null ? parent.getLabel() : node.getParentKey();
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public List<EmotionResponse> getAll() {
+        return all;
+    }
+
+    public List<EmotionResponse> getRoots() {
+        return roots;
+    }
+
+    public List<EmotionResponse> getTaxonomy() {
+        return taxonomy;
+    }
+
+    public List<EmotionResponse> getDropdown() {
+        return dropdown;
+    }
+
+    public List<EmotionResponse> getSubEmotions() {
+        return subEmotions;
+    }
+
+    public List<EmotionResponse> getSubEmotionsByParentLabel() {
+        return subEmotionsByParentLabel;
+    }
+
+    public Optional<EmotionResponse> findByKey(String key) {
+        return Optional.ofNullable(byKey.get(key));
+    }
+
+    public boolean contains(String key) {
+        return byKey.containsKey(key);
+    }
+
+    public List<EmotionResponse> getChildren(String parentKey) {
+        return childrenByParent.getOrDefault(parentKey, List.of());
+    }
+
+    /**
+     * The category itself plus its direct children, ordered by label
+     */
+    public List<EmotionResponse> getCategory(String categoryKey) {
+        return byCategory.getOrDefault(categoryKey, List.of());
+    }
+
+    /**
+     * Key to ancestor/root-category index, ordinals follow {@link #getAll()}
+     */
+    public EmotionCategoryIndex getCategoryIndex() {
+        return categoryIndex;
+    }
+
+    public EmotionSearchIndex getSearchIndex() {
+        return searchIndex;
+    }
+
+    public int size() {
+        return all.size();
+    }
+}
@@ -0,0 +1,123 @@
+package com.mentalapp.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.mentalapp.dto.MoodEntryExport;
+import com.mentalapp.dto.SuggestedActivityResponse;
+import com.mentalapp.entity.User;
+import com.mentalapp.repository.MoodEntryRepository;
+import com.mentalapp.repository.SuggestedActivityRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Streams a user's full history as NDJSON, one mood entry per line.
+ *
+ * Entries, emotion keys and activities are read through three forward-only
+ * projection streams, all ordered by mood entry id, and merged as they are
+ * written. Nothing is attached to the persistence context and only the
+ * current entry is held in memory, whatever the size of the history.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExportService {
+
+    private static final int FLUSH_EVERY = 200;
+
+    private final MoodEntryRepository moodEntryRepository;
+    private final SuggestedActivityRepository suggestedActivityRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Write every mood entry of the user, with its emotion keys and
+     * suggested activities, to the output stream
+     *
+     * @return number of mood entries written
+     */
+    @Transactional(readOnly = true)
+    public long exportUserHistory(User user, OutputStream out) throws IOException {
+        Long userId = user.getId();
+        long written = 0;
+
+        try (Stream<MoodEntryExport> entries = moodEntryRepository.streamExportByUserId(userId);
+                Stream<Object[]> emotionKeys = moodEntryRepository.streamEmotionKeysByUserId(userId);
+                Stream<SuggestedActivityResponse> activities = suggestedActivityRepository
+                        .streamExportByUserId(userId);
+                JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+
+            ObjectWriter writer = objectMapper.writer()
+                    .without(SerializationFeature.INDENT_OUTPUT)
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+            PeekingIterator<Object[]> keys = new PeekingIterator<>(emotionKeys.iterator());
+            PeekingIterator<SuggestedActivityResponse> suggestions = new PeekingIterator<>(activities.iterator());
+            generator.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+            generator.setRootValueSeparator(null);
+
+            for (Iterator<MoodEntryExport> it = entries.iterator(); it.hasNext(); ) {
+                MoodEntryExport entry = it.next();
+                long entryId = entry.getId();
+
+                // Rows of entries that sort before this one can't exist, but skip them defensively
+                while (keys.hasNext() && ((Long) keys.peek()[0]) <= entryId) {
+                    Object[] row = keys.next();
+                    if ((Long) row[0] == entryId) {
+                        entry.getEmotionKeys().add((String) row[1]);
+                    }
+                }
+                while (suggestions.hasNext() && suggestions.peek().getMoodEntryId() <= entryId) {
+                    SuggestedActivityResponse activity = suggestions.next();
+                    if (activity.getMoodEntryId() == entryId) {
+                        entry.getSuggestedActivities().add(activity);
+                    }
+                }
+
+                writer.writeValue(generator, entry);
+                generator.writeRaw('\n');
+                if (++written % FLUSH_EVERY == 0) {
+                    generator.flush();
+                }
+            }
+            generator.flush();
+        }
+
+        log.info("Exported {} mood entries for user: {}", written, userId);
+        return written;
+    }
+
+    private static final class PeekingIterator<T> {
+        private final Iterator<T> delegate;
+        private T next;
+
+        private PeekingIterator(Iterator<T> delegate) {
+            this.delegate = delegate;
+        }
+
+        boolean hasNext() {
+            return next != null || delegate.hasNext();
+        }
+
+        T peek() {
+            if (next == null) {
+                next = delegate.next();
+            }
+            return next;
+        }
+
+        T next() {
+            T result = peek();
+            next = null;
+            return result;
+        }
+    }
+}
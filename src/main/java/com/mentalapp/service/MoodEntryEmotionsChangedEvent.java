@@ -0,0 +1,17 @@
+package com.mentalapp.service;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Published inside the writing transaction when a mood entry's emotions
+ * change: empty previous keys for a new entry, empty current keys for a
+ * deleted one
+ */
+@Value
+public class MoodEntryEmotionsChangedEvent {
+    Long userId;
+    List<String> previousEmotionKeys;
+    List<String> emotionKeys;
+}
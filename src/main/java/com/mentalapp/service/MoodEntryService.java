@@ -1,19 +1,48 @@
 package com.mentalapp.service;
 
+import com.mentalapp.dto.CursorPage;
+import com.mentalapp.dto.EmotionCooccurrenceResponse;
+import com.mentalapp.dto.MoodEntryBatchItem;
+import com.mentalapp.dto.MoodEntryBatchResponse;
+import com.mentalapp.dto.MoodEntryResponse;
+import com.mentalapp.dto.MoodTrendResponse;
+import com.mentalapp.dto.SuggestedActivityResponse;
 import com.mentalapp.entity.MoodEntry;
 import com.mentalapp.entity.SuggestedActivity;
+import com.mentalapp.entity.SuggestionStrategy;
 import com.mentalapp.entity.User;
+import com.mentalapp.repository.MoodEntryBatchWriter;
 import com.mentalapp.repository.MoodEntryRepository;
+import com.mentalapp.repository.MoodRollupRepository;
 import com.mentalapp.repository.SuggestedActivityRepository;
+import com.mentalapp.service.suggestion.ActivityTemplate;
+import com.mentalapp.service.suggestion.SuggestionRequest;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import java.sql.Timestamp;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -21,32 +50,179 @@ import java.util.Optional;
 @Transactional
 public class MoodEntryService {
 
+    /** Client clocks may run slightly ahead of ours */
+    private static final Duration MAX_CLIENT_CLOCK_SKEW = Duration.ofMinutes(5);
+
     private final MoodEntryRepository moodEntryRepository;
     private final SuggestedActivityRepository suggestedActivityRepository;
     private final AIActivitySuggestionService aiActivitySuggestionService;
+    private final SuggestionGenerationPipeline suggestionGenerationPipeline;
+    private final MoodRollupService moodRollupService;
+    private final UserStatisticsCache userStatisticsCache;
+    private final EmotionCooccurrenceService emotionCooccurrenceService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MoodEntryBatchWriter moodEntryBatchWriter;
+    private final Validator validator;
+    private final UserTodayCache userTodayCache;
 
     /**
-     * Create a new mood entry and generate AI suggestions
+     * Create a new mood entry and generate AI suggestions.
+     *
+     * With the async pipeline enabled the entry is returned as PENDING and
+     * its suggestions are generated on a worker once this transaction commits.
      */
     public MoodEntry createMoodEntry(MoodEntry moodEntry, User user) {
         log.info("Creating mood entry for user: {}", user.getId());
 
         moodEntry.setUser(user);
+
+        if (suggestionGenerationPipeline.isEnabled()) {
+            moodEntry.setSuggestionStatus(MoodEntry.SuggestionStatus.PENDING);
+            MoodEntry savedEntry = moodEntryRepository.save(moodEntry);
+            moodRollupService.recordAdded(savedEntry);
+            publishChange(user, List.of(), savedEntry.getEmotionKeys());
+            eventPublisher.publishEvent(TodayDataChangedEvent.builder()
+                    .userId(user.getId())
+                    .savedEntries(List.of(MoodEntryResponse.of(savedEntry, 0)))
+                    .build());
+            suggestionGenerationPipeline.submitAfterCommit(savedEntry.getId());
+            log.info("Created mood entry {} with suggestions pending", savedEntry.getId());
+            return savedEntry;
+        }
+
+        moodEntry.setSuggestionStatus(MoodEntry.SuggestionStatus.READY);
+        // Filled in place below; assigning a new list would make the entry dirty and update it again
+        moodEntry.setSuggestedActivities(new ArrayList<>());
         MoodEntry savedEntry = moodEntryRepository.save(moodEntry);
+        moodRollupService.recordAdded(savedEntry);
+        publishChange(user, List.of(), savedEntry.getEmotionKeys());
 
         // Generate AI activity suggestions
         List<SuggestedActivity> suggestions = aiActivitySuggestionService.generateActivitySuggestions(savedEntry);
 
         // Save all suggestions
-        if (suggestions != null && !suggestions.isEmpty()) {
+        if (!suggestions.isEmpty()) {
             suggestedActivityRepository.saveAll(suggestions);
-            savedEntry.setSuggestedActivities(suggestions);
+            savedEntry.getSuggestedActivities().addAll(suggestions);
         }
+        eventPublisher.publishEvent(TodayDataChangedEvent.builder()
+                .userId(user.getId())
+                .savedEntries(List.of(MoodEntryResponse.of(savedEntry, suggestions.size())))
+                .savedActivities(toResponses(suggestions))
+                .build());
 
-        log.info("Created mood entry with {} AI suggestions", suggestions != null ? suggestions.size() : 0);
+        log.info("Created mood entry with {} AI suggestions", suggestions.size());
         return savedEntry;
     }
 
+    /**
+     * Create a batch of entries replayed by an offline client.
+     *
+     * Every item is validated up front and rejected items are reported rather
+     * than failing the batch. The accepted entries are written with JDBC
+     * batches in this transaction and their suggestions generated in one pass,
+     * so they are READY right away.
+     */
+    public MoodEntryBatchResponse ingestBatch(List<MoodEntryBatchItem> items, User user) {
+        log.info("Ingesting batch of {} mood entries for user: {}", items.size(), user.getId());
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime latestEntryDate = now.plus(MAX_CLIENT_CLOCK_SKEW);
+        List<MoodEntryBatchResponse.ItemResult> results = new ArrayList<>(items.size());
+        List<MoodEntry> entries = new ArrayList<>(items.size());
+        List<MoodEntryBatchResponse.ItemResult> createdResults = new ArrayList<>(items.size());
+
+        for (int i = 0; i < items.size(); i++) {
+            MoodEntryBatchItem item = items.get(i);
+            MoodEntryBatchResponse.ItemResult result = MoodEntryBatchResponse.ItemResult.builder()
+                    .index(i)
+                    .clientId(item != null ? item.getClientId() : null)
+                    .build();
+            results.add(result);
+
+            List<String> errors = validateBatchItem(item, latestEntryDate);
+            if (!errors.isEmpty()) {
+                result.setStatus(MoodEntryBatchResponse.Status.REJECTED);
+                result.setErrors(errors);
+                continue;
+            }
+
+            entries.add(MoodEntry.builder()
+                    .user(user)
+                    .emotionKeys(List.copyOf(item.getEmotionKeys()))
+                    .location(item.getLocation())
+                    .environment(item.getEnvironment())
+                    .description(item.getDescription())
+                    .energyLevel(item.getEnergyLevel())
+                    .isVoiceInput(item.getIsVoiceInput() != null ? item.getIsVoiceInput() : false)
+                    .entryDate(item.getEntryDate() != null ? item.getEntryDate() : now)
+                    .suggestionStatus(MoodEntry.SuggestionStatus.READY)
+                    .build());
+            createdResults.add(result);
+        }
+
+        if (!entries.isEmpty()) {
+            moodEntryBatchWriter.insertEntries(entries);
+
+            // Suggestions belong to the day the entry was recorded, not the sync day
+            List<SuggestedActivity> suggestions = aiActivitySuggestionService.generateActivitySuggestions(entries);
+            for (SuggestedActivity suggestion : suggestions) {
+                suggestion.setSuggestedDate(suggestion.getMoodEntry().getEntryDate().toLocalDate());
+            }
+            moodEntryBatchWriter.insertActivities(suggestions);
+
+            Map<Long, Integer> suggestionCounts = new HashMap<>();
+            for (SuggestedActivity suggestion : suggestions) {
+                suggestionCounts.merge(suggestion.getMoodEntry().getId(), 1, Integer::sum);
+            }
+
+            moodRollupService.recordAddedAll(user.getId(), entries);
+            eventPublisher.publishEvent(new UserDataChangedEvent(user.getId(), UserDataChangedEvent.Kind.MOOD_ENTRIES));
+            eventPublisher.publishEvent(new UserDataChangedEvent(user.getId(), UserDataChangedEvent.Kind.ACTIVITIES));
+            for (int i = 0; i < entries.size(); i++) {
+                MoodEntry entry = entries.get(i);
+                eventPublisher.publishEvent(new MoodEntryEmotionsChangedEvent(user.getId(), List.of(),
+                        entry.getEmotionKeys()));
+
+                MoodEntryBatchResponse.ItemResult result = createdResults.get(i);
+                result.setStatus(MoodEntryBatchResponse.Status.CREATED);
+                result.setId(entry.getId());
+                result.setEntryDate(entry.getEntryDate());
+                result.setSuggestedActivitiesCount(suggestionCounts.getOrDefault(entry.getId(), 0));
+            }
+            eventPublisher.publishEvent(TodayDataChangedEvent.builder()
+                    .userId(user.getId())
+                    .savedEntries(entries.stream()
+                            .map(entry -> MoodEntryResponse.of(entry, suggestionCounts.getOrDefault(entry.getId(), 0)))
+                            .collect(Collectors.toList()))
+                    .savedActivities(toResponses(suggestions))
+                    .build());
+        }
+
+        log.info("Batch for user {}: {} created, {} rejected", user.getId(), entries.size(),
+                items.size() - entries.size());
+        return MoodEntryBatchResponse.builder()
+                .created(entries.size())
+                .rejected(items.size() - entries.size())
+                .results(results)
+                .build();
+    }
+
+    private List<String> validateBatchItem(MoodEntryBatchItem item, LocalDateTime latestEntryDate) {
+        if (item == null) {
+            return List.of("Entry is missing");
+        }
+        List<String> errors = new ArrayList<>();
+        for (ConstraintViolation<MoodEntryBatchItem> violation : validator.validate(item)) {
+            errors.add(violation.getPropertyPath() + ": " + violation.getMessage());
+        }
+        if (item.getEntryDate() != null && item.getEntryDate().isAfter(latestEntryDate)) {
+            errors.add("entryDate: Entry date cannot be in the future");
+        }
+        Collections.sort(errors);
+        return errors;
+    }
+
     /**
      * Update mood entry (only allowed on the same day it was created)
      */
@@ -68,6 +244,10 @@ public class MoodEntryService {
             return Optional.empty();
         }
 
+        List<String> previousEmotionKeys = new ArrayList<>(existingEntry.getEmotionKeys());
+        Integer previousEnergyLevel = existingEntry.getEnergyLevel();
+        SuggestionRequest previousRequest = aiActivitySuggestionService.buildRequest(existingEntry);
+
         // Update fields
         existingEntry.setEmotionKeys(updatedEntry.getEmotionKeys());
         existingEntry.setLocation(updatedEntry.getLocation());
@@ -76,84 +256,119 @@ public class MoodEntryService {
         existingEntry.setEnergyLevel(updatedEntry.getEnergyLevel());
         existingEntry.setIsVoiceInput(updatedEntry.getIsVoiceInput());
 
-        MoodEntry savedEntry = moodEntryRepository.save(existingEntry);
+        // Flushed so updated_at is set before the entry is handed to the today cache
+        MoodEntry savedEntry = moodEntryRepository.saveAndFlush(existingEntry);
+        moodRollupService.recordChanged(savedEntry, previousEmotionKeys, previousEnergyLevel);
+        publishChange(user, previousEmotionKeys, savedEntry.getEmotionKeys());
 
-        // Regenerate AI suggestions if emotions or energy changed significantly
-        regenerateAISuggestionsIfNeeded(savedEntry, updatedEntry);
+        // Replace only the suggestions whose strategy now yields a different activity
+        TodayDataChangedEvent.TodayDataChangedEventBuilder todayChange = TodayDataChangedEvent.builder()
+                .userId(user.getId())
+                .savedEntries(List.of(MoodEntryResponse.of(savedEntry, null)));
+        regenerateChangedSuggestions(savedEntry, previousRequest, user, todayChange);
+        eventPublisher.publishEvent(todayChange.build());
 
         return Optional.of(savedEntry);
     }
 
     /**
-     * Delete mood entry (only allowed on the same day it was created)
+     * Delete mood entry (only allowed on the same day it was created).
+     * Ownership and the same-day rule are checked by the DELETE itself.
      */
     public boolean deleteMoodEntry(Long id, User user) {
         log.info("Deleting mood entry: {} for user: {}", id, user.getId());
 
-        Optional<MoodEntry> entryOpt = moodEntryRepository.findByIdAndUserId(id, user.getId());
+        LocalDateTime startOfDay = LocalDate.now().atStartOfDay();
+        List<Object[]> rows = moodEntryRepository.deleteCreatedBetweenByIdAndUserId(id, user.getId(), startOfDay,
+                startOfDay.plusDays(1));
 
-        if (entryOpt.isEmpty()) {
-            log.warn("Mood entry not found or user not authorized: {}", id);
+        if (rows.isEmpty()) {
+            log.warn("Mood entry not found, not authorized or not from today: {}", id);
             return false;
         }
 
-        MoodEntry entry = entryOpt.get();
-
-        // Check if entry can be deleted (same day as creation)
-        if (!isSameDay(entry.getCreatedAt(), LocalDateTime.now())) {
-            log.warn("Cannot delete mood entry from previous day: {}", id);
-            return false;
+        List<String> previousEmotionKeys = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            if (row[2] != null) {
+                previousEmotionKeys.add((String) row[2]);
+            }
         }
-
-        moodEntryRepository.delete(entry);
+        MoodEntry deleted = MoodEntry.builder()
+                .id(id)
+                .user(user)
+                .entryDate(toLocalDateTime(rows.get(0)[0]))
+                .energyLevel(rows.get(0)[1] != null ? ((Number) rows.get(0)[1]).intValue() : null)
+                .emotionKeys(previousEmotionKeys)
+                .build();
+        moodRollupService.recordRemoved(deleted);
+        publishChange(user, previousEmotionKeys, List.of());
+        eventPublisher.publishEvent(new UserDataChangedEvent(user.getId(), UserDataChangedEvent.Kind.ACTIVITIES));
+        eventPublisher.publishEvent(TodayDataChangedEvent.builder()
+                .userId(user.getId())
+                .removedEntryIds(Set.of(id))
+                .build());
         log.info("Successfully deleted mood entry: {}", id);
         return true;
     }
 
     /**
-     * Get all mood entries for a user
+     * Get one page of a user's mood entries, newest first.
+     * Seeks past the cursor on (entry_date, id) instead of using OFFSET.
      */
     @Transactional(readOnly = true)
-    public List<MoodEntry> getUserMoodEntries(User user) {
-        return moodEntryRepository.findByUserIdOrderByEntryDateDesc(user.getId());
+    public CursorPage<MoodEntryResponse> getUserMoodEntries(User user, PageCursor cursor, int limit) {
+        Pageable pageable = PageRequest.ofSize(limit + 1);
+        List<MoodEntryResponse> rows = cursor == null
+                ? moodEntryRepository.findFirstPageByUserId(user.getId(), pageable)
+                : moodEntryRepository.findPageByUserIdAfter(user.getId(), cursor.getPosition(), cursor.getId(),
+                        pageable);
+        CursorPage<MoodEntryResponse> page = PageCursor.page(rows, limit,
+                entry -> new PageCursor(entry.getEntryDate(), entry.getId()));
+        return page.withItems(withDetails(page.getItems()));
     }
 
     /**
      * Get today's mood entries for a user
      */
     @Transactional(readOnly = true)
-    public List<MoodEntry> getTodayMoodEntries(User user) {
+    public List<MoodEntryResponse> getTodayMoodEntries(User user) {
+        if (userTodayCache.isEnabled()) {
+            return userTodayCache.getTodayEntries(user.getId());
+        }
         LocalDateTime startOfDay = LocalDateTime.now().with(LocalTime.MIN);
         LocalDateTime endOfDay = LocalDateTime.now().with(LocalTime.MAX);
-        return moodEntryRepository.findTodayMoodEntriesByUserId(user.getId(), startOfDay, endOfDay);
+        return withDetails(moodEntryRepository.findTodayMoodEntriesByUserId(user.getId(), startOfDay, endOfDay));
     }
 
     /**
      * Get mood entries for a specific date
      */
     @Transactional(readOnly = true)
-    public List<MoodEntry> getMoodEntriesByDate(User user, LocalDate date) {
+    public List<MoodEntryResponse> getMoodEntriesByDate(User user, LocalDate date) {
         LocalDateTime startOfDay = date.atStartOfDay();
         LocalDateTime endOfDay = date.atTime(LocalTime.MAX);
-        return moodEntryRepository.findByUserIdAndEntryDate(user.getId(), startOfDay, endOfDay);
+        return withDetails(moodEntryRepository.findByUserIdAndEntryDate(user.getId(), startOfDay, endOfDay));
     }
 
     /**
      * Get mood entries within date range
      */
     @Transactional(readOnly = true)
-    public List<MoodEntry> getMoodEntriesInRange(User user, LocalDateTime startDate, LocalDateTime endDate) {
-        return moodEntryRepository.findByUserIdAndDateRange(user.getId(), startDate, endDate);
+    public List<MoodEntryResponse> getMoodEntriesInRange(User user, LocalDateTime startDate, LocalDateTime endDate) {
+        return withDetails(moodEntryRepository.findByUserIdAndDateRange(user.getId(), startDate, endDate));
     }
 
     /**
      * Get today's editable mood entries
      */
     @Transactional(readOnly = true)
-    public List<MoodEntry> getTodayEditableMoodEntries(User user) {
+    public List<MoodEntryResponse> getTodayEditableMoodEntries(User user) {
+        if (userTodayCache.isEnabled()) {
+            return userTodayCache.getTodayEditableEntries(user.getId());
+        }
         LocalDateTime startOfDay = LocalDateTime.now().with(LocalTime.MIN);
         LocalDateTime endOfDay = LocalDateTime.now().with(LocalTime.MAX);
-        return moodEntryRepository.findTodayEditableMoodEntries(user.getId(), startOfDay, endOfDay);
+        return withDetails(moodEntryRepository.findTodayEditableMoodEntries(user.getId(), startOfDay, endOfDay));
     }
 
     /**
@@ -164,50 +379,239 @@ public class MoodEntryService {
         return moodEntryRepository.findByIdAndUserId(id, user.getId());
     }
 
+    /**
+     * Get the suggestions generated for a mood entry
+     */
+    @Transactional(readOnly = true)
+    public List<SuggestedActivity> getSuggestedActivities(MoodEntry moodEntry) {
+        return suggestedActivityRepository.findByMoodEntryId(moodEntry.getId());
+    }
+
+    /**
+     * Number of suggestions stored for an entry. Uses the entity's collection
+     * when it is already loaded and a single count query otherwise.
+     */
+    @Transactional(readOnly = true)
+    public int countSuggestedActivities(MoodEntry moodEntry) {
+        List<SuggestedActivity> activities = moodEntry.getSuggestedActivities();
+        if (activities == null) {
+            // Only entries created in this request have no collection yet
+            return 0;
+        }
+        if (Hibernate.isInitialized(activities)) {
+            return activities.size();
+        }
+        return (int) suggestedActivityRepository.countByMoodEntryId(moodEntry.getId());
+    }
+
+    /**
+     * Set emotion keys and suggestion counts on projected list responses,
+     * loaded with one query each instead of once per entry
+     */
+    private List<MoodEntryResponse> withDetails(List<MoodEntryResponse> entries) {
+        return EntryDetails.load(moodEntryRepository, suggestedActivityRepository, entries.stream()
+                .map(MoodEntryResponse::getId)
+                .collect(Collectors.toList()))
+                .fillIn(entries);
+    }
+
+    /**
+     * Retry suggestion generation for an entry whose generation failed
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public boolean retrySuggestionGeneration(Long id, User user) {
+        Optional<MoodEntry> entry = moodEntryRepository.findByIdAndUserId(id, user.getId());
+        if (entry.isEmpty() || entry.get().getSuggestionStatus() != MoodEntry.SuggestionStatus.FAILED) {
+            return false;
+        }
+        log.info("Retrying suggestion generation for mood entry: {}", id);
+        return suggestionGenerationPipeline.retry(id);
+    }
+
     /**
      * Get user's mood statistics
      */
     @Transactional(readOnly = true)
     public MoodStatistics getUserMoodStatistics(User user) {
-        LocalDateTime startOfDay = LocalDateTime.now().with(LocalTime.MIN);
-        LocalDateTime endOfDay = LocalDateTime.now().with(LocalTime.MAX);
-        long todayEntries = moodEntryRepository.countTodayEntriesByUserId(user.getId(), startOfDay, endOfDay);
-        Double avgEnergyWeek = moodEntryRepository.getAverageEnergyLevelSince(user.getId(),
-                LocalDateTime.now().minusWeeks(1));
-        Double avgEnergyMonth = moodEntryRepository.getAverageEnergyLevelSince(user.getId(),
-                LocalDateTime.now().minusMonths(1));
-
-        return MoodStatistics.builder()
-                .todayEntries(todayEntries)
-                .averageEnergyLevelWeek(avgEnergyWeek != null ? avgEnergyWeek : 0.0)
-                .averageEnergyLevelMonth(avgEnergyMonth != null ? avgEnergyMonth : 0.0)
+        return userStatisticsCache.getMoodStatistics(user.getId(), () -> {
+            // Read from the daily rollups instead of scanning mood_entries
+            MoodRollupRepository.StatisticsRow totals = moodRollupService.getStatistics(user.getId());
+
+            return MoodStatistics.builder()
+                    .todayEntries(totals.getTodayEntries())
+                    .averageEnergyLevelWeek(average(totals.getWeekEnergySum(), totals.getWeekEnergyCount()))
+                    .averageEnergyLevelMonth(average(totals.getMonthEnergySum(), totals.getMonthEnergyCount()))
+                    .build();
+        });
+    }
+
+    /**
+     * Mood aggregates per bucket over [from, to) in the given timezone,
+     * computed with one grouped query
+     */
+    @Transactional(readOnly = true)
+    public MoodTrendResponse getMoodTrend(User user, MoodTrendResponse.Bucket bucket, LocalDate from, LocalDate to,
+            ZoneId zone) {
+        ZoneId serverZone = ZoneId.systemDefault();
+        LocalDateTime startDate = from.atStartOfDay(zone).withZoneSameInstant(serverZone).toLocalDateTime();
+        LocalDateTime endDate = to.atStartOfDay(zone).withZoneSameInstant(serverZone).toLocalDateTime();
+
+        List<Object[]> rows = moodEntryRepository.findTrendByUserId(user.getId(), bucket.getSqlUnit(),
+                serverZone.getId(), zone.getId(), startDate, endDate);
+        List<MoodTrendResponse.Point> points = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            points.add(MoodTrendResponse.Point.builder()
+                    .start(toLocalDateTime(row[0]))
+                    .entryCount(((Number) row[1]).longValue())
+                    .averageEnergy(((Number) row[2]).doubleValue())
+                    .minEnergy(((Number) row[3]).intValue())
+                    .maxEnergy(((Number) row[4]).intValue())
+                    .dominantCategory((String) row[5])
+                    .build());
+        }
+
+        return MoodTrendResponse.builder()
+                .bucket(bucket)
+                .timezone(zone.getId())
+                .from(from)
+                .to(to)
+                .points(points)
                 .build();
     }
 
+    private static LocalDateTime toLocalDateTime(Object value) {
+        return value instanceof Timestamp ? ((Timestamp) value).toLocalDateTime() : (LocalDateTime) value;
+    }
+
+    private static double average(long sum, long count) {
+        return count > 0 ? (double) sum / count : 0.0;
+    }
+
+    /**
+     * Emotion co-occurrence pairs across the user's whole history
+     */
+    @Transactional(readOnly = true)
+    public EmotionCooccurrenceResponse getEmotionPairs(User user, EmotionCooccurrenceMatrix.Order order, int limit) {
+        return emotionCooccurrenceService.getTopPairs(user.getId(), order, limit);
+    }
+
+    private void publishChange(User user, List<String> previousEmotionKeys, List<String> emotionKeys) {
+        eventPublisher.publishEvent(new UserDataChangedEvent(user.getId(), UserDataChangedEvent.Kind.MOOD_ENTRIES));
+        eventPublisher.publishEvent(new MoodEntryEmotionsChangedEvent(user.getId(), previousEmotionKeys,
+                emotionKeys != null ? List.copyOf(emotionKeys) : List.of()));
+    }
+
     private boolean isSameDay(LocalDateTime date1, LocalDateTime date2) {
         return date1.toLocalDate().equals(date2.toLocalDate());
     }
 
-    private void regenerateAISuggestionsIfNeeded(MoodEntry existingEntry, MoodEntry updatedEntry) {
-        // Simple check - if emotions or energy level changed significantly, regenerate
-        boolean shouldRegenerate = !existingEntry.getEmotionKeys().equals(updatedEntry.getEmotionKeys()) ||
-                Math.abs(existingEntry.getEnergyLevel() - updatedEntry.getEnergyLevel()) >= 2;
+    /**
+     * Diff the entry's stored suggestions against what its strategies yield
+     * now. Per strategy a stored suggestion showing the new activity is kept;
+     * otherwise the strategy's incomplete suggestions are deleted and a new
+     * one is added. Completed suggestions always stay. Removed and added
+     * rows are recorded on the today change.
+     */
+    private void regenerateChangedSuggestions(MoodEntry entry, SuggestionRequest previousRequest, User user,
+            TodayDataChangedEvent.TodayDataChangedEventBuilder todayChange) {
+        if (entry.getSuggestionStatus() != MoodEntry.SuggestionStatus.READY) {
+            // Pending generation reads the updated entry; failed entries are retried explicitly
+            return;
+        }
+        SuggestionRequest request = aiActivitySuggestionService.buildRequest(entry);
+        if (request.equals(previousRequest)) {
+            return;
+        }
 
-        if (shouldRegenerate) {
-            log.info("Regenerating AI suggestions for updated mood entry: {}", existingEntry.getId());
+        List<ActivityTemplate> templates = aiActivitySuggestionService.suggestTemplates(request);
+        Map<SuggestionStrategy, List<SuggestedActivity>> current = new HashMap<>();
+        for (SuggestedActivity activity : suggestedActivityRepository.findByMoodEntryId(entry.getId())) {
+            current.computeIfAbsent(activity.getStrategy(), strategy -> new ArrayList<>()).add(activity);
+        }
 
-            // Remove old suggestions for today
-            List<SuggestedActivity> oldSuggestions = suggestedActivityRepository
-                    .findByMoodEntryId(existingEntry.getId());
-            suggestedActivityRepository.deleteAll(oldSuggestions);
+        SuggestionStrategy[] strategies = SuggestionStrategy.values();
+        List<Long> staleIds = new ArrayList<>();
+        List<SuggestedActivity> added = new ArrayList<>();
+        for (int i = 0; i < templates.size() && i < strategies.length; i++) {
+            ActivityTemplate template = templates.get(i);
+            List<SuggestedActivity> stored = current.remove(strategies[i]);
+            SuggestedActivity kept = null;
+            if (stored != null) {
+                for (SuggestedActivity activity : stored) {
+                    if (kept == null && template.matches(activity)) {
+                        kept = activity;
+                    } else if (!Boolean.TRUE.equals(activity.getIsCompleted())) {
+                        staleIds.add(activity.getId());
+                    }
+                }
+            }
+            if (kept == null) {
+                added.add(template.toActivity(entry, strategies[i]));
+            }
+        }
+        // Rows without a (current) strategy slot are replaced unless completed
+        current.values().forEach(stored -> stored.stream()
+                .filter(activity -> !Boolean.TRUE.equals(activity.getIsCompleted()))
+                .forEach(activity -> staleIds.add(activity.getId())));
 
-            // Generate new suggestions
-            List<SuggestedActivity> newSuggestions = aiActivitySuggestionService
-                    .generateActivitySuggestions(existingEntry);
+        if (staleIds.isEmpty() && added.isEmpty()) {
+            return;
+        }
+        List<Long> removedIds = staleIds.isEmpty()
+                ? List.of()
+                : suggestedActivityRepository.deleteIncompleteByIds(staleIds);
+        if (!added.isEmpty()) {
+            suggestedActivityRepository.saveAll(added);
+        }
+        log.info("Regenerated suggestions for mood entry {}: {} removed, {} added", entry.getId(),
+                removedIds.size(), added.size());
+        eventPublisher.publishEvent(new UserDataChangedEvent(user.getId(), UserDataChangedEvent.Kind.ACTIVITIES));
+        todayChange.removedActivityIds(Set.copyOf(removedIds)).savedActivities(toResponses(added));
+    }
 
-            if (newSuggestions != null && !newSuggestions.isEmpty()) {
-                suggestedActivityRepository.saveAll(newSuggestions);
+    private static List<SuggestedActivityResponse> toResponses(List<SuggestedActivity> activities) {
+        return activities.stream().map(SuggestedActivityResponse::of).collect(Collectors.toList());
+    }
+
+    @lombok.Value
+    public static class EntryDetails {
+        Map<Long, List<String>> emotionKeys;
+        Map<Long, Integer> suggestionCounts;
+
+        public List<String> emotionKeysOf(Long moodEntryId) {
+            return emotionKeys.getOrDefault(moodEntryId, List.of());
+        }
+
+        public int suggestionCountOf(Long moodEntryId) {
+            return suggestionCounts.getOrDefault(moodEntryId, 0);
+        }
+
+        /**
+         * Set emotion keys and suggestion counts on projected responses
+         */
+        public List<MoodEntryResponse> fillIn(List<MoodEntryResponse> entries) {
+            for (MoodEntryResponse entry : entries) {
+                entry.setEmotionKeys(emotionKeysOf(entry.getId()));
+                entry.setSuggestedActivitiesCount(suggestionCountOf(entry.getId()));
+            }
+            return entries;
+        }
+
+        static EntryDetails load(MoodEntryRepository moodEntryRepository,
+                SuggestedActivityRepository suggestedActivityRepository, Collection<Long> ids) {
+            if (ids.isEmpty()) {
+                return new EntryDetails(Map.of(), Map.of());
+            }
+
+            Map<Long, List<String>> emotionKeys = new HashMap<>();
+            for (Object[] row : moodEntryRepository.findEmotionKeysByMoodEntryIds(ids)) {
+                emotionKeys.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((String) row[1]);
+            }
+            Map<Long, Integer> suggestionCounts = new HashMap<>();
+            for (Object[] row : suggestedActivityRepository.countByMoodEntryIds(ids)) {
+                suggestionCounts.put((Long) row[0], ((Long) row[1]).intValue());
             }
+            return new EntryDetails(emotionKeys, suggestionCounts);
         }
     }
 
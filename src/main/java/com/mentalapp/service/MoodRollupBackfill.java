@@ -0,0 +1,114 @@
+package com.mentalapp.service;
+
+import com.mentalapp.config.MoodRollupProperties;
+import com.mentalapp.repository.MoodRollupRepository;
+import com.mentalapp.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rebuilds the daily mood rollups from mood_entries.
+ *
+ * Users are walked in id order in chunks; each chunk is rebuilt with two
+ * set-based INSERT ... SELECT statements in its own transaction, and chunks
+ * run in parallel on a small pool. A chunk locks its users exclusively, so
+ * entries written meanwhile are either already in the rebuild or applied as
+ * deltas on top of it.
+ */
+@Component
+@Slf4j
+public class MoodRollupBackfill {
+
+    private final UserRepository userRepository;
+    private final MoodRollupRepository moodRollupRepository;
+    private final MoodRollupProperties properties;
+    private final UserStatisticsCache userStatisticsCache;
+    private final TransactionTemplate transactionTemplate;
+
+    public MoodRollupBackfill(UserRepository userRepository, MoodRollupRepository moodRollupRepository,
+            MoodRollupProperties properties, UserStatisticsCache userStatisticsCache,
+            PlatformTransactionManager transactionManager) {
+        this.userRepository = userRepository;
+        this.moodRollupRepository = moodRollupRepository;
+        this.properties = properties;
+        this.userStatisticsCache = userStatisticsCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        if (properties.isBackfillOnStartup()) {
+            CompletableFuture.runAsync(this::backfillAll)
+                    .exceptionally(e -> {
+                        log.error("Mood rollup backfill failed", e);
+                        return null;
+                    });
+        }
+    }
+
+    /**
+     * Rebuild the rollups of every user
+     *
+     * @return number of users rebuilt
+     */
+    public long backfillAll() {
+        long started = System.currentTimeMillis();
+        int chunkSize = Math.max(1, properties.getBackfillChunkSize());
+        AtomicLong users = new AtomicLong();
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, properties.getBackfillThreads()), r -> {
+            Thread thread = new Thread(r, "rollup-backfill-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            List<CompletableFuture<Void>> chunks = new ArrayList<>();
+            Long afterId = 0L;
+            while (true) {
+                List<Long> userIds = userRepository.findIdsAfter(afterId, PageRequest.ofSize(chunkSize));
+                if (userIds.isEmpty()) {
+                    break;
+                }
+                afterId = userIds.get(userIds.size() - 1);
+                chunks.add(CompletableFuture.runAsync(() -> {
+                    rebuild(userIds);
+                    users.addAndGet(userIds.size());
+                }, executor));
+            }
+            CompletableFuture.allOf(chunks.toArray(new CompletableFuture<?>[0])).join();
+        } finally {
+            executor.shutdown();
+        }
+        userStatisticsCache.invalidateAll();
+
+        log.info("Rebuilt mood rollups for {} users in {} ms", users.get(), System.currentTimeMillis() - started);
+        return users.get();
+    }
+
+    /**
+     * Rebuild the rollups of the given users in one transaction
+     */
+    public void rebuild(List<Long> userIds) {
+        transactionTemplate.executeWithoutResult(status -> {
+            moodRollupRepository.lockUsersExclusive(userIds);
+            moodRollupRepository.deleteCategoriesByUserIds(userIds);
+            moodRollupRepository.deleteDaysByUserIds(userIds);
+            moodRollupRepository.rebuildDaysForUserIds(userIds);
+            moodRollupRepository.rebuildCategoriesForUserIds(userIds);
+        });
+    }
+}
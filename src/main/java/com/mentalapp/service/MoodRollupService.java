@@ -0,0 +1,152 @@
+package com.mentalapp.service;
+
+import com.mentalapp.entity.MoodEntry;
+import com.mentalapp.repository.MoodRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Keeps the per-user daily rollups in step with mood entry writes.
+ *
+ * Every change is applied as a delta upsert in the writing transaction, so
+ * the rollups commit or roll back together with the entry. Writers hold a
+ * shared per-user advisory lock that the backfill takes exclusively, so a
+ * rebuild never interleaves with live deltas for the same user.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MoodRollupService {
+
+    private final MoodRollupRepository moodRollupRepository;
+    private final EmotionService emotionService;
+
+    /**
+     * Count a newly created entry
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAdded(MoodEntry entry) {
+        apply(entry.getUser().getId(), dayOf(entry), entry.getEnergyLevel(), entry.getEmotionKeys(), 1);
+    }
+
+    /**
+     * Count a batch of new entries of one user, one upsert per touched day and category
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAddedAll(Long userId, Collection<MoodEntry> entries) {
+        Map<LocalDate, long[]> days = new TreeMap<>();
+        Map<LocalDate, Map<String, Integer>> categories = new TreeMap<>();
+        for (MoodEntry entry : entries) {
+            LocalDate day = dayOf(entry);
+            long[] totals = days.computeIfAbsent(day, d -> new long[3]);
+            totals[0]++;
+            totals[1] += energyOf(entry.getEnergyLevel());
+            totals[2] += entry.getEnergyLevel() != null ? 1 : 0;
+            Map<String, Integer> dayCategories = categories.computeIfAbsent(day, d -> new TreeMap<>());
+            for (String category : rootCategories(entry.getEmotionKeys())) {
+                dayCategories.merge(category, 1, Integer::sum);
+            }
+        }
+        if (days.isEmpty()) {
+            return;
+        }
+
+        moodRollupRepository.lockUserShared(userId);
+        days.forEach((day, totals) ->
+                moodRollupRepository.addToDay(userId, day, (int) totals[0], totals[1], (int) totals[2]));
+        categories.forEach((day, counts) -> counts.forEach((category, count) ->
+                moodRollupRepository.addToCategory(userId, day, category, count)));
+    }
+
+    /**
+     * Remove a deleted entry from its day
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordRemoved(MoodEntry entry) {
+        apply(entry.getUser().getId(), dayOf(entry), entry.getEnergyLevel(), entry.getEmotionKeys(), -1);
+    }
+
+    /**
+     * Apply an edit of an entry's energy level and emotions; the entry date never changes
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordChanged(MoodEntry entry, Collection<String> previousEmotionKeys, Integer previousEnergyLevel) {
+        Long userId = entry.getUser().getId();
+        LocalDate day = dayOf(entry);
+        int energyDelta = energyOf(entry.getEnergyLevel()) - energyOf(previousEnergyLevel);
+        Set<String> previousCategories = rootCategories(previousEmotionKeys);
+        Set<String> categories = rootCategories(entry.getEmotionKeys());
+        if (energyDelta == 0 && previousCategories.equals(categories)) {
+            return;
+        }
+
+        moodRollupRepository.lockUserShared(userId);
+        if (energyDelta != 0) {
+            moodRollupRepository.addToDay(userId, day, 0, energyDelta, 0);
+        }
+        for (String category : previousCategories) {
+            if (!categories.contains(category)) {
+                moodRollupRepository.addToCategory(userId, day, category, -1);
+            }
+        }
+        for (String category : categories) {
+            if (!previousCategories.contains(category)) {
+                moodRollupRepository.addToCategory(userId, day, category, 1);
+            }
+        }
+    }
+
+    /**
+     * Totals for today, the last 7 days and the last month (whole days, today included)
+     */
+    @Transactional(readOnly = true)
+    public MoodRollupRepository.StatisticsRow getStatistics(Long userId) {
+        LocalDate today = LocalDate.now();
+        return moodRollupRepository.getStatistics(userId, today, today.minusDays(6),
+                today.minusMonths(1).plusDays(1));
+    }
+
+    private void apply(Long userId, LocalDate day, Integer energyLevel, Collection<String> emotionKeys, int sign) {
+        moodRollupRepository.lockUserShared(userId);
+        moodRollupRepository.addToDay(userId, day, sign, (long) sign * energyOf(energyLevel),
+                energyLevel != null ? sign : 0);
+        for (String category : rootCategories(emotionKeys)) {
+            moodRollupRepository.addToCategory(userId, day, category, sign);
+        }
+    }
+
+    /**
+     * Distinct root categories of the keys; keys outside the taxonomy are not counted
+     */
+    private Set<String> rootCategories(Collection<String> emotionKeys) {
+        Set<String> categories = new LinkedHashSet<>();
+        if (emotionKeys == null) {
+            return categories;
+        }
+        EmotionCategoryIndex categoryIndex = emotionService.getTaxonomySnapshot().getCategoryIndex();
+        for (String key : emotionKeys) {
+            String category = categoryIndex.rootCategoryOf(key);
+            if (category != null) {
+                categories.add(category);
+            }
+        }
+        return categories;
+    }
+
+    private static LocalDate dayOf(MoodEntry entry) {
+        return entry.getEntryDate().toLocalDate();
+    }
+
+    private static int energyOf(Integer energyLevel) {
+        return energyLevel != null ? energyLevel : 0;
+    }
+}
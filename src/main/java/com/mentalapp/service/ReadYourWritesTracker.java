@@ -0,0 +1,69 @@
+package com.mentalapp.service;
+
+import com.mentalapp.config.ReplicaRoutingProperties;
+import com.mentalapp.entity.User;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers which users wrote recently, so their reads go to the primary
+ * until the replicas have caught up with their writes.
+ */
+@Component
+@ConditionalOnProperty(prefix = "mentalapp.datasource.replicas", name = "enabled", havingValue = "true")
+public class ReadYourWritesTracker {
+
+    private static final int PRUNE_THRESHOLD = 10000;
+
+    private final ReplicaRoutingProperties properties;
+    private final ConcurrentHashMap<Long, Long> pinnedUntil = new ConcurrentHashMap<>();
+
+    public ReadYourWritesTracker(ReplicaRoutingProperties properties) {
+        this.properties = properties;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserDataChanged(UserDataChangedEvent event) {
+        pin(event.getUserId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTodayDataChanged(TodayDataChangedEvent event) {
+        pin(event.getUserId());
+    }
+
+    /**
+     * Keep the user's reads on the primary for the read-your-writes window, starting now
+     */
+    public void pin(Long userId) {
+        long now = System.currentTimeMillis();
+        if (pinnedUntil.size() >= PRUNE_THRESHOLD) {
+            pinnedUntil.values().removeIf(until -> until <= now);
+        }
+        pinnedUntil.put(userId, now + properties.getReadYourWritesMs());
+    }
+
+    public boolean isPinned(Long userId) {
+        Long until = pinnedUntil.get(userId);
+        return until != null && until > System.currentTimeMillis();
+    }
+
+    /**
+     * Whether the user of the current request (the "user" request attribute
+     * the controllers receive) is pinned; false outside requests
+     */
+    public boolean isCurrentUserPinned() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return false;
+        }
+        Object user = attributes.getAttribute("user", RequestAttributes.SCOPE_REQUEST);
+        return user instanceof User && isPinned(((User) user).getId());
+    }
+}
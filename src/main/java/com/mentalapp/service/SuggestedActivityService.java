@@ -1,15 +1,25 @@
 package com.mentalapp.service;
 
+import com.mentalapp.dto.CursorPage;
+import com.mentalapp.dto.SuggestedActivityResponse;
 import com.mentalapp.entity.SuggestedActivity;
 import com.mentalapp.entity.User;
 import com.mentalapp.repository.SuggestedActivityRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -18,59 +28,84 @@ import java.util.Optional;
 public class SuggestedActivityService {
 
     private final SuggestedActivityRepository suggestedActivityRepository;
+    private final UserStatisticsCache userStatisticsCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UserTodayCache userTodayCache;
 
     /**
      * Mark activity as completed
      */
-    public Optional<SuggestedActivity> completeActivity(Long activityId, User user) {
+    public Optional<SuggestedActivity> completeActivity(Long activityId, Long expectedVersion, User user) {
         log.info("Marking activity as completed: {} for user: {}", activityId, user.getId());
-
-        Optional<SuggestedActivity> activityOpt = suggestedActivityRepository
-                .findByIdAndUserId(activityId, user.getId());
-
-        if (activityOpt.isEmpty()) {
-            log.warn("Activity not found or user not authorized: {}", activityId);
-            return Optional.empty();
-        }
-
-        SuggestedActivity activity = activityOpt.get();
-        activity.setIsCompleted(true);
-
-        SuggestedActivity savedActivity = suggestedActivityRepository.save(activity);
-        log.info("Successfully completed activity: {}", activityId);
-
-        return Optional.of(savedActivity);
+        return setActivityCompleted(activityId, true, expectedVersion, user);
     }
 
     /**
      * Mark activity as incomplete (undo completion)
      */
-    public Optional<SuggestedActivity> uncompleteActivity(Long activityId, User user) {
+    public Optional<SuggestedActivity> uncompleteActivity(Long activityId, Long expectedVersion, User user) {
         log.info("Marking activity as incomplete: {} for user: {}", activityId, user.getId());
+        return setActivityCompleted(activityId, false, expectedVersion, user);
+    }
 
-        Optional<SuggestedActivity> activityOpt = suggestedActivityRepository
-                .findByIdAndUserId(activityId, user.getId());
-
-        if (activityOpt.isEmpty()) {
+    /**
+     * One conditional UPDATE returning the new row. Throws
+     * {@link OptimisticLockingFailureException} when the activity exists but
+     * its version no longer matches the expected one.
+     */
+    private Optional<SuggestedActivity> setActivityCompleted(Long activityId, boolean completed,
+            Long expectedVersion, User user) {
+        Optional<SuggestedActivity> activity = suggestedActivityRepository.setCompletedByIdAndUserId(activityId,
+                user.getId(), completed, expectedVersion, LocalDateTime.now());
+
+        if (activity.isEmpty()) {
+            if (expectedVersion != null && suggestedActivityRepository.existsByIdAndUserId(activityId, user.getId())) {
+                log.warn("Stale version {} for activity: {}", expectedVersion, activityId);
+                throw new OptimisticLockingFailureException("Activity " + activityId + " was modified concurrently");
+            }
             log.warn("Activity not found or user not authorized: {}", activityId);
             return Optional.empty();
         }
 
-        SuggestedActivity activity = activityOpt.get();
-        activity.setIsCompleted(false);
-        activity.setCompletedAt(null);
-
-        SuggestedActivity savedActivity = suggestedActivityRepository.save(activity);
-        log.info("Successfully uncompleted activity: {}", activityId);
+        publishChange(user, TodayDataChangedEvent.builder()
+                .userId(user.getId())
+                .savedActivities(List.of(SuggestedActivityResponse.of(activity.get())))
+                .build());
+        log.info("Activity {} is now {}", activityId, completed ? "completed" : "incomplete");
+        return activity;
+    }
 
-        return Optional.of(savedActivity);
+    /**
+     * Mark several activities completed or incomplete with one ownership-scoped
+     * UPDATE. Ids the user does not own, and activities already in the
+     * requested state, are skipped. Returns the ids that changed.
+     */
+    public List<Long> setActivitiesCompleted(Collection<Long> activityIds, boolean completed, User user) {
+        log.info("Marking {} activities as {} for user: {}", activityIds.size(),
+                completed ? "completed" : "incomplete", user.getId());
+
+        List<SuggestedActivity> updated = suggestedActivityRepository.setCompletedByIdsAndUserId(activityIds,
+                user.getId(), completed, LocalDateTime.now());
+        if (!updated.isEmpty()) {
+            publishChange(user, TodayDataChangedEvent.builder()
+                    .userId(user.getId())
+                    .savedActivities(updated.stream()
+                            .map(SuggestedActivityResponse::of)
+                            .collect(Collectors.toList()))
+                    .build());
+        }
+        log.info("Updated {} of {} activities", updated.size(), activityIds.size());
+        return updated.stream().map(SuggestedActivity::getId).collect(Collectors.toList());
     }
 
     /**
      * Get today's activities for user
      */
     @Transactional(readOnly = true)
-    public List<SuggestedActivity> getTodayActivities(User user) {
+    public List<SuggestedActivityResponse> getTodayActivities(User user) {
+        if (userTodayCache.isEnabled()) {
+            return userTodayCache.getTodayActivities(user.getId());
+        }
         return suggestedActivityRepository.findTodayActivitiesByUserId(user.getId());
     }
 
@@ -78,7 +113,10 @@ public class SuggestedActivityService {
      * Get pending (incomplete) today's activities for user
      */
     @Transactional(readOnly = true)
-    public List<SuggestedActivity> getPendingTodayActivities(User user) {
+    public List<SuggestedActivityResponse> getPendingTodayActivities(User user) {
+        if (userTodayCache.isEnabled()) {
+            return userTodayCache.getPendingTodayActivities(user.getId());
+        }
         return suggestedActivityRepository.findPendingTodayActivitiesByUserId(user.getId());
     }
 
@@ -86,31 +124,44 @@ public class SuggestedActivityService {
      * Get activities for a specific date
      */
     @Transactional(readOnly = true)
-    public List<SuggestedActivity> getActivitiesByDate(User user, LocalDate date) {
+    public List<SuggestedActivityResponse> getActivitiesByDate(User user, LocalDate date) {
         return suggestedActivityRepository.findByUserIdAndSuggestedDate(user.getId(), date);
     }
 
     /**
-     * Get past activities (history)
+     * Get one page of past activities (history), newest day first.
+     * Seeks past the cursor on (suggested_date, id) instead of using OFFSET.
      */
     @Transactional(readOnly = true)
-    public List<SuggestedActivity> getPastActivities(User user) {
-        return suggestedActivityRepository.findPastActivitiesByUserId(user.getId());
+    public CursorPage<SuggestedActivityResponse> getPastActivities(User user, PageCursor cursor, int limit) {
+        Pageable pageable = PageRequest.ofSize(limit + 1);
+        List<SuggestedActivityResponse> rows = cursor == null
+                ? suggestedActivityRepository.findPastActivitiesFirstPage(user.getId(), pageable)
+                : suggestedActivityRepository.findPastActivitiesPageAfter(user.getId(),
+                        cursor.getPosition().toLocalDate(), cursor.getId(), pageable);
+        return PageCursor.page(rows, limit,
+                activity -> new PageCursor(activity.getSuggestedDate().atStartOfDay(), activity.getId()));
     }
 
     /**
-     * Get all completed activities for user
+     * Get one page of completed activities, most recently completed first.
+     * Seeks past the cursor on (completed_at, id) instead of using OFFSET.
      */
     @Transactional(readOnly = true)
-    public List<SuggestedActivity> getCompletedActivities(User user) {
-        return suggestedActivityRepository.findCompletedActivitiesByUserId(user.getId());
+    public CursorPage<SuggestedActivityResponse> getCompletedActivities(User user, PageCursor cursor, int limit) {
+        Pageable pageable = PageRequest.ofSize(limit + 1);
+        List<SuggestedActivityResponse> rows = cursor == null
+                ? suggestedActivityRepository.findCompletedActivitiesFirstPage(user.getId(), pageable)
+                : suggestedActivityRepository.findCompletedActivitiesPageAfter(user.getId(),
+                        cursor.getPosition(), cursor.getId(), pageable);
+        return PageCursor.page(rows, limit, activity -> new PageCursor(activity.getCompletedAt(), activity.getId()));
     }
 
     /**
      * Get activities by category
      */
     @Transactional(readOnly = true)
-    public List<SuggestedActivity> getActivitiesByCategory(User user, SuggestedActivity.ActivityCategory category) {
+    public List<SuggestedActivityResponse> getActivitiesByCategory(User user, SuggestedActivity.ActivityCategory category) {
         return suggestedActivityRepository.findByUserIdAndCategory(user.getId(), category);
     }
 
@@ -127,9 +178,22 @@ public class SuggestedActivityService {
      */
     @Transactional(readOnly = true)
     public ActivityStatistics getUserActivityStatistics(User user) {
-        long todayTotal = suggestedActivityRepository.countTodayActivitiesByUserId(user.getId());
-        long todayCompleted = suggestedActivityRepository.countCompletedTodayByUserId(user.getId());
+        if (userTodayCache.isEnabled()) {
+            // Counted from the cached day, which is already kept current
+            List<SuggestedActivityResponse> today = userTodayCache.getTodayActivities(user.getId());
+            long todayCompleted = today.stream()
+                    .filter(activity -> Boolean.TRUE.equals(activity.getIsCompleted()))
+                    .count();
+            return toStatistics(today.size(), todayCompleted);
+        }
+        return userStatisticsCache.getActivityStatistics(user.getId(), () -> {
+            SuggestedActivityRepository.TodayCountsRow counts = suggestedActivityRepository
+                    .getTodayCountsByUserId(user.getId());
+            return toStatistics(counts.getTodayTotal(), counts.getTodayCompleted());
+        });
+    }
 
+    private static ActivityStatistics toStatistics(long todayTotal, long todayCompleted) {
         return ActivityStatistics.builder()
                 .todayTotal(todayTotal)
                 .todayCompleted(todayCompleted)
@@ -153,10 +217,19 @@ public class SuggestedActivityService {
         }
 
         suggestedActivityRepository.delete(activityOpt.get());
+        publishChange(user, TodayDataChangedEvent.builder()
+                .userId(user.getId())
+                .removedActivityIds(Set.of(activityId))
+                .build());
         log.info("Successfully deleted activity: {}", activityId);
         return true;
     }
 
+    private void publishChange(User user, TodayDataChangedEvent todayChange) {
+        eventPublisher.publishEvent(new UserDataChangedEvent(user.getId(), UserDataChangedEvent.Kind.ACTIVITIES));
+        eventPublisher.publishEvent(todayChange);
+    }
+
     @lombok.Data
     @lombok.Builder
     public static class ActivityStatistics {
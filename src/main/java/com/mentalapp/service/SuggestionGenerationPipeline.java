@@ -0,0 +1,206 @@
+package com.mentalapp.service;
+
+import com.mentalapp.config.SuggestionPipelineProperties;
+import com.mentalapp.entity.MoodEntry;
+import com.mentalapp.entity.SuggestedActivity;
+import com.mentalapp.repository.MoodEntryRepository;
+import com.mentalapp.repository.SuggestedActivityRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates activity suggestions for committed mood entries on a bounded
+ * worker pool.
+ *
+ * Work is only submitted after the creating transaction commits. When the
+ * queue is full the submitting thread runs the generation itself, which slows
+ * producers down instead of dropping work. Failed generations are retried
+ * with exponential backoff; after the last attempt the entry is marked
+ * FAILED and parked in a bounded dead-letter list until retried.
+ */
+@Service
+@Slf4j
+public class SuggestionGenerationPipeline {
+
+    private final MoodEntryRepository moodEntryRepository;
+    private final SuggestedActivityRepository suggestedActivityRepository;
+    private final AIActivitySuggestionService aiActivitySuggestionService;
+    private final SuggestionPipelineProperties properties;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor executor;
+    private final ScheduledExecutorService retryScheduler;
+    private final ConcurrentLinkedDeque<DeadLetter> deadLetters = new ConcurrentLinkedDeque<>();
+
+    public SuggestionGenerationPipeline(MoodEntryRepository moodEntryRepository,
+            SuggestedActivityRepository suggestedActivityRepository,
+            AIActivitySuggestionService aiActivitySuggestionService,
+            SuggestionPipelineProperties properties,
+            ApplicationEventPublisher eventPublisher,
+            PlatformTransactionManager transactionManager) {
+        this.moodEntryRepository = moodEntryRepository;
+        this.suggestedActivityRepository = suggestedActivityRepository;
+        this.aiActivitySuggestionService = aiActivitySuggestionService;
+        this.properties = properties;
+        this.eventPublisher = eventPublisher;
+        // Work may run inside afterCommit of the creating transaction, so always start a new one
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.executor = new ThreadPoolExecutor(properties.getPoolSize(), properties.getPoolSize(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                namedThreads("suggestion-worker-"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(namedThreads("suggestion-retry-"));
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Queue suggestion generation for an entry once the current transaction commits
+     */
+    public void submitAfterCommit(Long moodEntryId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            submit(moodEntryId, 1);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                submit(moodEntryId, 1);
+            }
+        });
+    }
+
+    /**
+     * Re-drive a failed generation, removing it from the dead-letter list
+     */
+    public boolean retry(Long moodEntryId) {
+        deadLetters.removeIf(deadLetter -> deadLetter.getMoodEntryId().equals(moodEntryId));
+        Integer updated = transactionTemplate.execute(status -> moodEntryRepository
+                .updateSuggestionStatus(moodEntryId, MoodEntry.SuggestionStatus.PENDING));
+        if (updated == null || updated == 0) {
+            return false;
+        }
+        submit(moodEntryId, 1);
+        return true;
+    }
+
+    public List<DeadLetter> getDeadLetters() {
+        return new ArrayList<>(deadLetters);
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    private void submit(Long moodEntryId, int attempt) {
+        if (executor.isShutdown()) {
+            log.warn("Suggestion pipeline is shut down, entry {} stays PENDING", moodEntryId);
+            return;
+        }
+        executor.execute(() -> generate(moodEntryId, attempt));
+    }
+
+    private void generate(Long moodEntryId, int attempt) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Optional<MoodEntry> entry = moodEntryRepository.findById(moodEntryId);
+                if (entry.isEmpty()) {
+                    log.info("Mood entry {} was deleted before its suggestions were generated", moodEntryId);
+                    return;
+                }
+                List<SuggestedActivity> suggestions = aiActivitySuggestionService
+                        .generateActivitySuggestions(entry.get());
+                if (suggestions != null && !suggestions.isEmpty()) {
+                    suggestedActivityRepository.saveAll(suggestions);
+                    eventPublisher.publishEvent(new UserDataChangedEvent(entry.get().getUser().getId(),
+                            UserDataChangedEvent.Kind.ACTIVITIES));
+                }
+                moodEntryRepository.updateSuggestionStatus(moodEntryId, MoodEntry.SuggestionStatus.READY);
+                // Status and counts changed outside the entity, so the today cache reloads this user
+                eventPublisher.publishEvent(TodayDataChangedEvent.reload(entry.get().getUser().getId()));
+            });
+            log.info("Generated suggestions for mood entry {} (attempt {})", moodEntryId, attempt);
+        } catch (RuntimeException e) {
+            handleFailure(moodEntryId, attempt, e);
+        }
+    }
+
+    private void handleFailure(Long moodEntryId, int attempt, RuntimeException e) {
+        if (attempt < properties.getMaxAttempts() && !retryScheduler.isShutdown()) {
+            long delay = properties.getRetryBackoffMs() << (attempt - 1);
+            log.warn("Suggestion generation failed for mood entry {} (attempt {}), retrying in {} ms",
+                    moodEntryId, attempt, delay, e);
+            retryScheduler.schedule(() -> submit(moodEntryId, attempt + 1), delay, TimeUnit.MILLISECONDS);
+            return;
+        }
+
+        log.error("Suggestion generation failed for mood entry {} after {} attempts, dead-lettering",
+                moodEntryId, attempt, e);
+        try {
+            transactionTemplate.executeWithoutResult(status -> moodEntryRepository
+                    .updateSuggestionStatus(moodEntryId, MoodEntry.SuggestionStatus.FAILED));
+        } catch (RuntimeException statusError) {
+            log.error("Could not mark mood entry {} as FAILED", moodEntryId, statusError);
+        }
+        deadLetters.addLast(new DeadLetter(moodEntryId, attempt, String.valueOf(e.getMessage()),
+                LocalDateTime.now()));
+        while (deadLetters.size() > properties.getDeadLetterCapacity()) {
+            deadLetters.pollFirst();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        retryScheduler.shutdownNow();
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @lombok.Value
+    public static class DeadLetter {
+        Long moodEntryId;
+        int attempts;
+        String error;
+        LocalDateTime failedAt;
+    }
+}
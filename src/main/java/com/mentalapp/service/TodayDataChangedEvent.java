@@ -0,0 +1,42 @@
+package com.mentalapp.service;
+
+import com.mentalapp.dto.MoodEntryResponse;
+import com.mentalapp.dto.SuggestedActivityResponse;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Published inside the writing transaction with the rows a write created,
+ * changed or removed, so the cached "today" view of the user can be patched
+ * after commit instead of reloaded. A reload event drops it instead.
+ *
+ * A saved entry with a null suggestion count keeps its cached count, adjusted
+ * by the activities added and removed in the same event.
+ */
+@Value
+@Builder
+public class TodayDataChangedEvent {
+
+    Long userId;
+
+    boolean reload;
+
+    @Builder.Default
+    List<MoodEntryResponse> savedEntries = List.of();
+
+    @Builder.Default
+    Set<Long> removedEntryIds = Set.of();
+
+    @Builder.Default
+    List<SuggestedActivityResponse> savedActivities = List.of();
+
+    @Builder.Default
+    Set<Long> removedActivityIds = Set.of();
+
+    public static TodayDataChangedEvent reload(Long userId) {
+        return TodayDataChangedEvent.builder().userId(userId).reload(true).build();
+    }
+}
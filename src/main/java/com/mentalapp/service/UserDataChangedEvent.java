@@ -0,0 +1,20 @@
+package com.mentalapp.service;
+
+import lombok.Value;
+
+/**
+ * Published inside the writing transaction whenever a user's mood entries or
+ * activities change, so derived per-user data can be dropped after commit
+ */
+@Value
+public class UserDataChangedEvent {
+
+    public enum Kind {
+        /** Mood entries changed; their suggested activities may have changed with them */
+        MOOD_ENTRIES,
+        ACTIVITIES
+    }
+
+    Long userId;
+    Kind kind;
+}
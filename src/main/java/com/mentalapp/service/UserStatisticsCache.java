@@ -0,0 +1,125 @@
+package com.mentalapp.service;
+
+import com.mentalapp.config.StatisticsCacheProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Per-user mood and activity statistics, kept until one of the user's writes
+ * commits or the day rolls over.
+ *
+ * Each user has a slot with a version that every invalidation bumps. A value
+ * computed while an invalidation happened is returned but not stored, so a
+ * read racing a commit can never cache pre-commit numbers.
+ */
+@Component
+@Slf4j
+public class UserStatisticsCache {
+
+    private final StatisticsCacheProperties properties;
+    private final ConcurrentHashMap<Long, Slot> slots = new ConcurrentHashMap<>();
+
+    public UserStatisticsCache(StatisticsCacheProperties properties) {
+        this.properties = properties;
+    }
+
+    public MoodEntryService.MoodStatistics getMoodStatistics(Long userId,
+            Supplier<MoodEntryService.MoodStatistics> loader) {
+        if (!properties.isEnabled()) {
+            return loader.get();
+        }
+        Slot slot = slot(userId);
+        long version = slot.version;
+        LocalDate today = LocalDate.now();
+        Cached<MoodEntryService.MoodStatistics> cached = slot.mood;
+        if (cached != null && cached.day.equals(today)) {
+            return cached.value;
+        }
+        MoodEntryService.MoodStatistics statistics = loader.get();
+        synchronized (slot) {
+            if (slot.version == version) {
+                slot.mood = new Cached<>(statistics, today);
+            }
+        }
+        return statistics;
+    }
+
+    public SuggestedActivityService.ActivityStatistics getActivityStatistics(Long userId,
+            Supplier<SuggestedActivityService.ActivityStatistics> loader) {
+        if (!properties.isEnabled()) {
+            return loader.get();
+        }
+        Slot slot = slot(userId);
+        long version = slot.version;
+        LocalDate today = LocalDate.now();
+        Cached<SuggestedActivityService.ActivityStatistics> cached = slot.activities;
+        if (cached != null && cached.day.equals(today)) {
+            return cached.value;
+        }
+        SuggestedActivityService.ActivityStatistics statistics = loader.get();
+        synchronized (slot) {
+            if (slot.version == version) {
+                slot.activities = new Cached<>(statistics, today);
+            }
+        }
+        return statistics;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserDataChanged(UserDataChangedEvent event) {
+        invalidate(event.getUserId(), event.getKind());
+    }
+
+    public void invalidate(Long userId, UserDataChangedEvent.Kind kind) {
+        Slot slot = slots.get(userId);
+        if (slot == null) {
+            return;
+        }
+        synchronized (slot) {
+            slot.version++;
+            // Mood entry writes also create or delete their suggested activities
+            if (kind == UserDataChangedEvent.Kind.MOOD_ENTRIES) {
+                slot.mood = null;
+            }
+            slot.activities = null;
+        }
+    }
+
+    public void invalidateAll() {
+        slots.clear();
+    }
+
+    private Slot slot(Long userId) {
+        Slot slot = slots.get(userId);
+        if (slot != null) {
+            return slot;
+        }
+        if (slots.size() >= properties.getMaxUsers()) {
+            log.debug("Statistics cache reached {} users, clearing", slots.size());
+            slots.clear();
+        }
+        return slots.computeIfAbsent(userId, id -> new Slot());
+    }
+
+    private static final class Slot {
+        private volatile long version;
+        private volatile Cached<MoodEntryService.MoodStatistics> mood;
+        private volatile Cached<SuggestedActivityService.ActivityStatistics> activities;
+    }
+
+    private static final class Cached<T> {
+        private final T value;
+        private final LocalDate day;
+
+        private Cached(T value, LocalDate day) {
+            this.value = value;
+            this.day = day;
+        }
+    }
+}
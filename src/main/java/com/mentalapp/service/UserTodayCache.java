@@ -0,0 +1,280 @@
+package com.mentalapp.service;
+
+import com.mentalapp.config.TodayCacheProperties;
+import com.mentalapp.dto.MoodEntryResponse;
+import com.mentalapp.dto.SuggestedActivityResponse;
+import com.mentalapp.repository.MoodEntryRepository;
+import com.mentalapp.repository.SuggestedActivityRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Per-user copy of today's mood entries and suggested activities, which is
+ * all the dashboard polls.
+ *
+ * A user's day is loaded once and then patched write-through from the
+ * {@link TodayDataChangedEvent}s of committed writes, so polling does not
+ * touch the database. It is reloaded when the day rolls over, after the TTL
+ * or on a reload event. Slots are versioned like in
+ * {@link UserStatisticsCache}: a load that raced a write is returned but not
+ * stored.
+ */
+@Component
+@Slf4j
+public class UserTodayCache {
+
+    private static final Comparator<MoodEntryResponse> ENTRY_ORDER = Comparator
+            .comparing(MoodEntryResponse::getEntryDate).reversed()
+            .thenComparing(MoodEntryResponse::getId, Comparator.reverseOrder());
+
+    private static final Comparator<SuggestedActivityResponse> ACTIVITY_ORDER = Comparator
+            .comparing(SuggestedActivityResponse::getCreatedAt)
+            .thenComparing(SuggestedActivityResponse::getId);
+
+    private final TodayCacheProperties properties;
+    private final MoodEntryRepository moodEntryRepository;
+    private final SuggestedActivityRepository suggestedActivityRepository;
+    private final ConcurrentHashMap<Long, Slot> slots = new ConcurrentHashMap<>();
+
+    public UserTodayCache(TodayCacheProperties properties, MoodEntryRepository moodEntryRepository,
+            SuggestedActivityRepository suggestedActivityRepository) {
+        this.properties = properties;
+        this.moodEntryRepository = moodEntryRepository;
+        this.suggestedActivityRepository = suggestedActivityRepository;
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Today's entries, newest first. Callers must not modify the result.
+     */
+    public List<MoodEntryResponse> getTodayEntries(Long userId) {
+        return day(userId).entries;
+    }
+
+    /**
+     * Today's entries that were never edited
+     */
+    public List<MoodEntryResponse> getTodayEditableEntries(Long userId) {
+        return day(userId).entries.stream()
+                .filter(entry -> entry.getCreatedAt().equals(entry.getUpdatedAt()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Today's activities, oldest first. Callers must not modify the result.
+     */
+    public List<SuggestedActivityResponse> getTodayActivities(Long userId) {
+        return day(userId).activities;
+    }
+
+    public List<SuggestedActivityResponse> getPendingTodayActivities(Long userId) {
+        return day(userId).activities.stream()
+                .filter(activity -> !Boolean.TRUE.equals(activity.getIsCompleted()))
+                .collect(Collectors.toList());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTodayDataChanged(TodayDataChangedEvent event) {
+        if (event.isReload()) {
+            invalidate(event.getUserId());
+            return;
+        }
+        Slot slot = slots.get(event.getUserId());
+        if (slot == null) {
+            return;
+        }
+        synchronized (slot) {
+            slot.version++;
+            Day day = slot.day;
+            if (day != null && day.date.equals(LocalDate.now())) {
+                slot.day = day.apply(event);
+            } else {
+                slot.day = null;
+            }
+        }
+    }
+
+    public void invalidate(Long userId) {
+        Slot slot = slots.get(userId);
+        if (slot == null) {
+            return;
+        }
+        synchronized (slot) {
+            slot.version++;
+            slot.day = null;
+        }
+    }
+
+    public void invalidateAll() {
+        slots.clear();
+    }
+
+    private Day day(Long userId) {
+        Slot slot = slot(userId);
+        long version = slot.version;
+        LocalDate today = LocalDate.now();
+        long now = System.currentTimeMillis();
+        Day cached = slot.day;
+        if (cached != null && cached.isValid(today, now, properties.getTtlMs())) {
+            return cached;
+        }
+        Day loaded = load(userId, today, now);
+        synchronized (slot) {
+            if (slot.version == version) {
+                slot.day = loaded;
+            }
+        }
+        return loaded;
+    }
+
+    private Day load(Long userId, LocalDate today, long now) {
+        LocalDateTime startOfDay = today.atStartOfDay();
+        List<MoodEntryResponse> entries = moodEntryRepository.findTodayMoodEntriesByUserId(userId, startOfDay,
+                startOfDay.plusDays(1));
+        MoodEntryService.EntryDetails.load(moodEntryRepository, suggestedActivityRepository, entries.stream()
+                .map(MoodEntryResponse::getId)
+                .collect(Collectors.toList()))
+                .fillIn(entries);
+        List<SuggestedActivityResponse> activities = suggestedActivityRepository.findTodayActivitiesByUserId(userId);
+        return new Day(today, now, List.copyOf(entries), List.copyOf(activities));
+    }
+
+    private Slot slot(Long userId) {
+        Slot slot = slots.get(userId);
+        if (slot != null) {
+            return slot;
+        }
+        if (slots.size() >= properties.getMaxUsers()) {
+            evict();
+        }
+        return slots.computeIfAbsent(userId, id -> new Slot());
+    }
+
+    private void evict() {
+        LocalDate today = LocalDate.now();
+        long now = System.currentTimeMillis();
+        slots.values().removeIf(slot -> {
+            Day day = slot.day;
+            return day == null || !day.isValid(today, now, properties.getTtlMs());
+        });
+        if (slots.size() >= properties.getMaxUsers()) {
+            log.debug("Today cache reached {} users, clearing", slots.size());
+            slots.clear();
+        }
+    }
+
+    private static final class Slot {
+        private volatile long version;
+        private volatile Day day;
+    }
+
+    /**
+     * Immutable view of one user's day; patches build a new one
+     */
+    private static final class Day {
+        private final LocalDate date;
+        private final long loadedAt;
+        private final List<MoodEntryResponse> entries;
+        private final List<SuggestedActivityResponse> activities;
+
+        private Day(LocalDate date, long loadedAt, List<MoodEntryResponse> entries,
+                List<SuggestedActivityResponse> activities) {
+            this.date = date;
+            this.loadedAt = loadedAt;
+            this.entries = entries;
+            this.activities = activities;
+        }
+
+        private boolean isValid(LocalDate today, long now, long ttlMs) {
+            return date.equals(today) && (ttlMs <= 0 || now - loadedAt < ttlMs);
+        }
+
+        private Day apply(TodayDataChangedEvent event) {
+            LocalDateTime startOfDay = date.atStartOfDay();
+            LocalDateTime endOfDay = startOfDay.plusDays(1);
+
+            Map<Long, SuggestedActivityResponse> activityById = new LinkedHashMap<>();
+            activities.forEach(activity -> activityById.put(activity.getId(), activity));
+            Map<Long, Integer> countDeltas = new HashMap<>();
+            for (Long id : event.getRemovedActivityIds()) {
+                SuggestedActivityResponse removed = activityById.remove(id);
+                if (removed != null) {
+                    countDeltas.merge(removed.getMoodEntryId(), -1, Integer::sum);
+                }
+            }
+            activityById.values()
+                    .removeIf(activity -> event.getRemovedEntryIds().contains(activity.getMoodEntryId()));
+            for (SuggestedActivityResponse activity : event.getSavedActivities()) {
+                // Listeners run in no particular commit order; keep the newer row
+                SuggestedActivityResponse cached = activityById.get(activity.getId());
+                if (cached != null && isOlder(activity.getVersion(), cached.getVersion())) {
+                    continue;
+                }
+                SuggestedActivityResponse previous = date.equals(activity.getSuggestedDate())
+                        ? activityById.put(activity.getId(), activity)
+                        : activityById.remove(activity.getId());
+                if (previous == null && date.equals(activity.getSuggestedDate())) {
+                    countDeltas.merge(activity.getMoodEntryId(), 1, Integer::sum);
+                }
+            }
+
+            Map<Long, MoodEntryResponse> entryById = new LinkedHashMap<>();
+            entries.forEach(entry -> entryById.put(entry.getId(), entry));
+            entryById.keySet().removeAll(event.getRemovedEntryIds());
+            for (MoodEntryResponse entry : event.getSavedEntries()) {
+                MoodEntryResponse cached = entryById.get(entry.getId());
+                if (cached != null && entry.getUpdatedAt() != null && cached.getUpdatedAt() != null
+                        && entry.getUpdatedAt().isBefore(cached.getUpdatedAt())) {
+                    continue;
+                }
+                MoodEntryResponse previous = entryById.remove(entry.getId());
+                if (entry.getEntryDate().isBefore(startOfDay) || !entry.getEntryDate().isBefore(endOfDay)) {
+                    continue;
+                }
+                if (entry.getSuggestedActivitiesCount() == null) {
+                    int count = previous != null ? previous.getSuggestedActivitiesCount() : 0;
+                    entry = copyWithCount(entry, count + countDeltas.getOrDefault(entry.getId(), 0));
+                }
+                countDeltas.remove(entry.getId());
+                entryById.put(entry.getId(), entry);
+            }
+            countDeltas.forEach((entryId, delta) -> {
+                MoodEntryResponse entry = entryById.get(entryId);
+                if (entry != null && delta != 0) {
+                    entryById.put(entryId,
+                            copyWithCount(entry, Math.max(0, entry.getSuggestedActivitiesCount() + delta)));
+                }
+            });
+
+            List<MoodEntryResponse> patchedEntries = new ArrayList<>(entryById.values());
+            patchedEntries.sort(ENTRY_ORDER);
+            List<SuggestedActivityResponse> patchedActivities = new ArrayList<>(activityById.values());
+            patchedActivities.sort(ACTIVITY_ORDER);
+            return new Day(date, loadedAt, List.copyOf(patchedEntries), List.copyOf(patchedActivities));
+        }
+
+        private static boolean isOlder(Long version, Long cachedVersion) {
+            return version != null && cachedVersion != null && version < cachedVersion;
+        }
+
+        private static MoodEntryResponse copyWithCount(MoodEntryResponse entry, int count) {
+            return entry.toBuilder().suggestedActivitiesCount(count).build();
+        }
+    }
+}
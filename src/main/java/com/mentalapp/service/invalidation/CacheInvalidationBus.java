@@ -0,0 +1,270 @@
+package com.mentalapp.service.invalidation;
+
+import com.mentalapp.config.CacheInvalidationProperties;
+import com.mentalapp.service.EmotionCooccurrenceService;
+import com.mentalapp.service.EmotionService;
+import com.mentalapp.service.EmotionTaxonomyChangedEvent;
+import com.mentalapp.service.ReadYourWritesTracker;
+import com.mentalapp.service.TodayDataChangedEvent;
+import com.mentalapp.service.UserDataChangedEvent;
+import com.mentalapp.service.UserStatisticsCache;
+import com.mentalapp.service.UserTodayCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tells the other API instances which cached data changed here, and applies
+ * what they report to this node's caches.
+ *
+ * Committed changes are collected for {@code flush-interval-ms}, coalesced per
+ * key (a user's mood entry change also covers their activities) and sent as
+ * one batch over the configured {@link InvalidationTransport}. Received keys
+ * drop the user's statistics, today and co-occurrence data or reload the
+ * emotion taxonomy; the suggestion and payload caches follow the taxonomy
+ * version. Batches this node sent are skipped on receipt.
+ */
+@Component
+@ConditionalOnProperty(prefix = "mentalapp.cache.invalidation", name = "enabled", havingValue = "true")
+@Slf4j
+public class CacheInvalidationBus implements InvalidationTransport.Listener {
+
+    private final InvalidationTransport transport;
+    private final CacheInvalidationProperties properties;
+    private final UserStatisticsCache userStatisticsCache;
+    private final UserTodayCache userTodayCache;
+    private final EmotionCooccurrenceService emotionCooccurrenceService;
+    private final EmotionService emotionService;
+    private final ObjectProvider<ReadYourWritesTracker> readYourWritesTracker;
+    private final String nodeId;
+    private final Map<InvalidationKey, InvalidationKey> pending = new LinkedHashMap<>();
+    private final ScheduledExecutorService flusher;
+
+    private final Timer propagationLag;
+    private final Counter sentKeys;
+    private final Counter sentBatches;
+    private final Counter receivedKeys;
+    private final Counter coalescedKeys;
+    private final Counter sendFailures;
+    private final Counter gaps;
+
+    public CacheInvalidationBus(InvalidationTransport transport, CacheInvalidationProperties properties,
+            UserStatisticsCache userStatisticsCache, UserTodayCache userTodayCache,
+            EmotionCooccurrenceService emotionCooccurrenceService, EmotionService emotionService,
+            ObjectProvider<ReadYourWritesTracker> readYourWritesTracker, MeterRegistry meterRegistry) {
+        this.transport = transport;
+        this.properties = properties;
+        this.userStatisticsCache = userStatisticsCache;
+        this.userTodayCache = userTodayCache;
+        this.emotionCooccurrenceService = emotionCooccurrenceService;
+        this.emotionService = emotionService;
+        this.readYourWritesTracker = readYourWritesTracker;
+        String configuredNodeId = properties.getNodeId();
+        this.nodeId = configuredNodeId != null && !configuredNodeId.isBlank()
+                ? configuredNodeId
+                : UUID.randomUUID().toString();
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cache-invalidation-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        String transportName = transport.getName();
+        this.propagationLag = Timer.builder("cache.invalidation.lag")
+                .description("Time from commit on the originating node to invalidation here")
+                .tag("transport", transportName)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.sentKeys = Counter.builder("cache.invalidation.keys")
+                .tag("transport", transportName)
+                .tag("direction", "sent")
+                .register(meterRegistry);
+        this.receivedKeys = Counter.builder("cache.invalidation.keys")
+                .tag("transport", transportName)
+                .tag("direction", "received")
+                .register(meterRegistry);
+        this.sentBatches = Counter.builder("cache.invalidation.batches")
+                .tag("transport", transportName)
+                .register(meterRegistry);
+        this.coalescedKeys = Counter.builder("cache.invalidation.coalesced")
+                .tag("transport", transportName)
+                .register(meterRegistry);
+        this.sendFailures = Counter.builder("cache.invalidation.send.failures")
+                .tag("transport", transportName)
+                .register(meterRegistry);
+        this.gaps = Counter.builder("cache.invalidation.gaps")
+                .tag("transport", transportName)
+                .register(meterRegistry);
+        Gauge.builder("cache.invalidation.pending", this, CacheInvalidationBus::getPendingCount)
+                .tag("transport", transportName)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        transport.start(this);
+        flusher.scheduleWithFixedDelay(this::flush, properties.getFlushIntervalMs(),
+                properties.getFlushIntervalMs(), TimeUnit.MILLISECONDS);
+        log.info("Cache invalidation bus started on node {} over {}", nodeId, transport.getName());
+    }
+
+    @PreDestroy
+    public void stop() {
+        flusher.shutdownNow();
+        flush();
+        transport.stop();
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public int getPendingCount() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserDataChanged(UserDataChangedEvent event) {
+        InvalidationKey.Scope scope = event.getKind() == UserDataChangedEvent.Kind.MOOD_ENTRIES
+                ? InvalidationKey.Scope.USER_MOOD_ENTRIES
+                : InvalidationKey.Scope.USER_ACTIVITIES;
+        enqueue(InvalidationKey.user(scope, event.getUserId(), System.currentTimeMillis()));
+    }
+
+    /**
+     * Reloads cover changes made without a {@link UserDataChangedEvent}, such
+     * as the async pipeline marking an entry's suggestions ready
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTodayDataChanged(TodayDataChangedEvent event) {
+        if (event.isReload()) {
+            enqueue(InvalidationKey.user(InvalidationKey.Scope.USER_ACTIVITIES, event.getUserId(),
+                    System.currentTimeMillis()));
+        }
+    }
+
+    @EventListener
+    public void onTaxonomyChanged(EmotionTaxonomyChangedEvent event) {
+        enqueue(InvalidationKey.taxonomy(System.currentTimeMillis()));
+    }
+
+    /**
+     * Queue a key for the next batch, keeping the earliest commit time of
+     * coalesced duplicates
+     */
+    public void enqueue(InvalidationKey key) {
+        boolean full;
+        synchronized (pending) {
+            if (key.getScope() == InvalidationKey.Scope.USER_ACTIVITIES && pending.containsKey(
+                    InvalidationKey.user(InvalidationKey.Scope.USER_MOOD_ENTRIES, key.getUserId(), 0))) {
+                coalescedKeys.increment();
+                return;
+            }
+            if (key.getScope() == InvalidationKey.Scope.USER_MOOD_ENTRIES) {
+                InvalidationKey covered = pending.remove(
+                        InvalidationKey.user(InvalidationKey.Scope.USER_ACTIVITIES, key.getUserId(), 0));
+                if (covered != null) {
+                    coalescedKeys.increment();
+                    key.setCommittedAt(Math.min(key.getCommittedAt(), covered.getCommittedAt()));
+                }
+            }
+            if (pending.putIfAbsent(key, key) != null) {
+                coalescedKeys.increment();
+            }
+            full = pending.size() >= properties.getMaxBatchSize();
+        }
+        if (full && !flusher.isShutdown()) {
+            flusher.execute(this::flush);
+        }
+    }
+
+    /**
+     * Send everything pending as one batch. Keys are put back when sending
+     * fails, so they go out with the next flush.
+     */
+    public void flush() {
+        List<InvalidationKey> keys;
+        synchronized (pending) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            keys = new ArrayList<>(pending.values());
+            pending.clear();
+        }
+        try {
+            transport.send(new InvalidationBatch(nodeId, keys));
+            sentKeys.increment(keys.size());
+            sentBatches.increment();
+        } catch (RuntimeException e) {
+            sendFailures.increment();
+            log.warn("Sending {} cache invalidations failed, retrying with the next flush", keys.size(), e);
+            keys.forEach(this::enqueue);
+        }
+    }
+
+    @Override
+    public void onBatch(InvalidationBatch batch) {
+        if (nodeId.equals(batch.getOrigin()) || batch.getKeys() == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        boolean taxonomyChanged = false;
+        ReadYourWritesTracker tracker = readYourWritesTracker.getIfAvailable();
+        for (InvalidationKey key : batch.getKeys()) {
+            // Reloads here must not come from a replica that is behind the write
+            if (tracker != null && key.getUserId() != null) {
+                tracker.pin(key.getUserId());
+            }
+            switch (key.getScope()) {
+                case USER_MOOD_ENTRIES:
+                    userStatisticsCache.invalidate(key.getUserId(), UserDataChangedEvent.Kind.MOOD_ENTRIES);
+                    userTodayCache.invalidate(key.getUserId());
+                    emotionCooccurrenceService.invalidate(key.getUserId());
+                    break;
+                case USER_ACTIVITIES:
+                    userStatisticsCache.invalidate(key.getUserId(), UserDataChangedEvent.Kind.ACTIVITIES);
+                    userTodayCache.invalidate(key.getUserId());
+                    break;
+                case EMOTION_TAXONOMY:
+                    taxonomyChanged = true;
+                    break;
+            }
+            propagationLag.record(Math.max(0, now - key.getCommittedAt()), TimeUnit.MILLISECONDS);
+        }
+        if (taxonomyChanged) {
+            emotionService.refreshTaxonomy();
+        }
+        receivedKeys.increment(batch.getKeys().size());
+    }
+
+    @Override
+    public void onGap() {
+        gaps.increment();
+        log.warn("Cache invalidations may have been missed, dropping all per-user caches");
+        userStatisticsCache.invalidateAll();
+        userTodayCache.invalidateAll();
+        emotionCooccurrenceService.invalidateAll();
+        emotionService.refreshTaxonomy();
+    }
+}
@@ -0,0 +1,20 @@
+package com.mentalapp.service.invalidation;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Coalesced invalidations sent by one node in one message
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvalidationBatch {
+
+    private String origin;
+
+    private List<InvalidationKey> keys;
+}
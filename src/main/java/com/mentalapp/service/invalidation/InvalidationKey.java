@@ -0,0 +1,42 @@
+package com.mentalapp.service.invalidation;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+/**
+ * One piece of cached data that changed on some node. Keys are equal when
+ * they name the same data, whenever they were committed.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvalidationKey {
+
+    public enum Scope {
+        /** A user's mood entries, and with them their suggested activities */
+        USER_MOOD_ENTRIES,
+        USER_ACTIVITIES,
+        /** The emotion taxonomy; has no user */
+        EMOTION_TAXONOMY
+    }
+
+    private Scope scope;
+
+    private Long userId;
+
+    /**
+     * Epoch millis of the commit on the originating node, for the propagation lag metric
+     */
+    @EqualsAndHashCode.Exclude
+    private long committedAt;
+
+    public static InvalidationKey user(Scope scope, Long userId, long committedAt) {
+        return new InvalidationKey(scope, userId, committedAt);
+    }
+
+    public static InvalidationKey taxonomy(long committedAt) {
+        return new InvalidationKey(Scope.EMOTION_TAXONOMY, null, committedAt);
+    }
+}
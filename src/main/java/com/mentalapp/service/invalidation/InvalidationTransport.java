@@ -0,0 +1,29 @@
+package com.mentalapp.service.invalidation;
+
+/**
+ * Carries invalidation batches between nodes. Delivery is at most once;
+ * transports report possible losses through {@link Listener#onGap()}.
+ */
+public interface InvalidationTransport {
+
+    String getName();
+
+    /**
+     * Publish a batch to every node, possibly including this one
+     */
+    void send(InvalidationBatch batch);
+
+    void start(Listener listener);
+
+    void stop();
+
+    interface Listener {
+
+        void onBatch(InvalidationBatch batch);
+
+        /**
+         * Batches may have been missed (e.g. after a reconnect); everything cached should be dropped
+         */
+        void onGap();
+    }
+}
@@ -0,0 +1,36 @@
+package com.mentalapp.service.invalidation;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Delivers batches synchronously to every listener started on the same
+ * instance. Buses sharing one instance behave like nodes on one channel,
+ * which is how the bus is exercised without a database.
+ */
+public class LoopbackInvalidationTransport implements InvalidationTransport {
+
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String getName() {
+        return "loopback";
+    }
+
+    @Override
+    public void send(InvalidationBatch batch) {
+        for (Listener listener : listeners) {
+            listener.onBatch(batch);
+        }
+    }
+
+    @Override
+    public void start(Listener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void stop() {
+        listeners.clear();
+    }
+}
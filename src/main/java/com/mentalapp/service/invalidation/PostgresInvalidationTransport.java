@@ -0,0 +1,163 @@
+package com.mentalapp.service.invalidation;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mentalapp.config.CacheInvalidationProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Sends batches with pg_notify and receives them on a dedicated LISTEN
+ * connection outside the pool.
+ *
+ * Notifications are only kept while a listener is connected, so after the
+ * listening connection is re-established the bus is told about the gap and
+ * drops everything it caches. Payloads are limited to 8000 bytes by Postgres,
+ * so large batches go out as several notifications.
+ */
+@Slf4j
+public class PostgresInvalidationTransport implements InvalidationTransport {
+
+    static final int MAX_KEYS_PER_NOTIFICATION = 80;
+
+    private static final Pattern CHANNEL_NAME = Pattern.compile("[a-z_][a-z0-9_]{0,62}");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSourceProperties dataSourceProperties;
+    private final ObjectMapper objectMapper;
+    private final CacheInvalidationProperties properties;
+
+    private volatile boolean running;
+    private volatile Connection connection;
+    private Thread listenerThread;
+
+    public PostgresInvalidationTransport(JdbcTemplate jdbcTemplate, DataSourceProperties dataSourceProperties,
+            ObjectMapper objectMapper, CacheInvalidationProperties properties) {
+        if (!CHANNEL_NAME.matcher(properties.getChannel()).matches()) {
+            throw new IllegalArgumentException("Invalid notification channel: " + properties.getChannel());
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSourceProperties = dataSourceProperties;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+    }
+
+    @Override
+    public String getName() {
+        return "postgres";
+    }
+
+    @Override
+    public void send(InvalidationBatch batch) {
+        List<InvalidationKey> keys = batch.getKeys();
+        for (int from = 0; from < keys.size(); from += MAX_KEYS_PER_NOTIFICATION) {
+            List<InvalidationKey> chunk = keys.subList(from, Math.min(keys.size(), from + MAX_KEYS_PER_NOTIFICATION));
+            String payload;
+            try {
+                payload = objectMapper.writeValueAsString(new InvalidationBatch(batch.getOrigin(), chunk));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Could not encode invalidation batch", e);
+            }
+            jdbcTemplate.queryForList("SELECT pg_notify(?, ?)", properties.getChannel(), payload);
+        }
+    }
+
+    @Override
+    public synchronized void start(Listener listener) {
+        running = true;
+        listenerThread = new Thread(() -> listen(listener), "cache-invalidation-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+        closeQuietly(connection);
+    }
+
+    private void listen(Listener listener) {
+        boolean reconnecting = false;
+        while (running) {
+            try (Connection listening = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                connection = listening;
+                try (Statement statement = listening.createStatement()) {
+                    statement.execute("LISTEN " + properties.getChannel());
+                }
+                log.info("Listening for cache invalidations on channel {}", properties.getChannel());
+                if (reconnecting) {
+                    listener.onGap();
+                }
+                reconnecting = true;
+
+                PGConnection pgConnection = listening.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(properties.getListenPollMs());
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        deliver(listener, notification.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Cache invalidation listener lost its connection, reconnecting in {} ms",
+                        properties.getReconnectBackoffMs(), e);
+                reconnecting = true;
+                try {
+                    Thread.sleep(properties.getReconnectBackoffMs());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            } finally {
+                connection = null;
+            }
+        }
+    }
+
+    private void deliver(Listener listener, String payload) {
+        InvalidationBatch batch;
+        try {
+            batch = objectMapper.readValue(payload, InvalidationBatch.class);
+        } catch (IOException e) {
+            log.warn("Ignoring malformed cache invalidation payload: {}", payload, e);
+            return;
+        }
+        try {
+            listener.onBatch(batch);
+        } catch (RuntimeException e) {
+            log.error("Applying cache invalidations from {} failed, dropping local caches", batch.getOrigin(), e);
+            listener.onGap();
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.debug("Closing the listening connection failed", e);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.mentalapp.service.suggestion;
+
+import com.mentalapp.entity.MoodEntry;
+import com.mentalapp.entity.SuggestedActivity;
+import com.mentalapp.entity.SuggestionStrategy;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.Objects;
+
+/**
+ * Shared, immutable description of a suggested activity. One instance per
+ * template exists per rule set; only {@link #toActivity} allocates.
+ */
+@Value
+@Builder
+public class ActivityTemplate {
+
+    String key;
+    String title;
+    String description;
+    SuggestedActivity.ActivityCategory category;
+    Integer durationMinutes;
+    SuggestedActivity.DifficultyLevel difficulty;
+
+    /**
+     * New unsaved suggestion row for the given mood entry and strategy slot
+     */
+    public SuggestedActivity toActivity(MoodEntry moodEntry, SuggestionStrategy strategy) {
+        return SuggestedActivity.builder()
+                .user(moodEntry.getUser())
+                .moodEntry(moodEntry)
+                .strategy(strategy)
+                .title(title)
+                .description(description)
+                .category(category)
+                .estimatedDurationMinutes(durationMinutes)
+                .difficultyLevel(difficulty)
+                .isCompleted(false)
+                .build();
+    }
+
+    /**
+     * Whether a stored suggestion shows the same activity as this template
+     */
+    public boolean matches(SuggestedActivity activity) {
+        return Objects.equals(title, activity.getTitle())
+                && Objects.equals(description, activity.getDescription())
+                && category == activity.getCategory()
+                && Objects.equals(durationMinutes, activity.getEstimatedDurationMinutes())
+                && difficulty == activity.getDifficultyLevel();
+    }
+}
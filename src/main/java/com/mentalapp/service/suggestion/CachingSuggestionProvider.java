@@ -0,0 +1,160 @@
+package com.mentalapp.service.suggestion;
+
+import com.mentalapp.config.SuggestionCacheProperties;
+import com.mentalapp.entity.MoodEntry;
+import com.mentalapp.service.EmotionCategoryIndex;
+import com.mentalapp.service.EmotionService;
+import com.mentalapp.service.EmotionTaxonomySnapshot;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Memoizes another provider's answers per feature combination.
+ *
+ * Suggestions depend only on energy level, primary category, environment and
+ * the stress flag, so the whole input space is a few hundred keys. Each
+ * combination is packed into a long and maps to the shared template list.
+ * The cache is dropped whenever the taxonomy (category ordinals) or the rule
+ * set changes. Answers the delegate got from its fallback are kept only for
+ * the short fallback TTL, so a recovered model is used again soon.
+ */
+@Slf4j
+public class CachingSuggestionProvider implements SuggestionProvider {
+
+    private final SuggestionProvider delegate;
+    private final EmotionService emotionService;
+    private final SuggestionRuleEngine suggestionRuleEngine;
+    private final SuggestionCacheProperties properties;
+    private final ConcurrentHashMap<Long, CachedSuggestions> cache = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Integer> extraCategories = new ConcurrentHashMap<>();
+    private final AtomicInteger extraCategoryIds = new AtomicInteger();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private volatile long taxonomyVersion = -1;
+    private volatile SuggestionRuleSet ruleSet;
+
+    public CachingSuggestionProvider(SuggestionProvider delegate, EmotionService emotionService,
+            SuggestionRuleEngine suggestionRuleEngine, SuggestionCacheProperties properties,
+            MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.emotionService = emotionService;
+        this.suggestionRuleEngine = suggestionRuleEngine;
+        this.properties = properties;
+
+        FunctionCounter.builder("suggestions.cache.requests", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("suggestions.cache.requests", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("suggestions.cache.size", cache, ConcurrentHashMap::size)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName() + "+cache";
+    }
+
+    @Override
+    public List<ActivityTemplate> suggest(SuggestionRequest request) {
+        EmotionTaxonomySnapshot taxonomy = emotionService.getTaxonomySnapshot();
+        invalidateIfStale(taxonomy.getVersion(), suggestionRuleEngine.getRuleSet());
+
+        long key = featureKey(request, taxonomy.getCategoryIndex());
+        long now = System.currentTimeMillis();
+        CachedSuggestions cached = cache.get(key);
+        if (cached != null && (cached.expiresAt == 0 || cached.expiresAt > now)) {
+            hits.increment();
+            return cached.templates;
+        }
+
+        misses.increment();
+        SuggestionResult result = delegate.suggestWithSource(request);
+        List<ActivityTemplate> templates = result.getTemplates();
+        long expiresAt;
+        if (result.isFallback()) {
+            if (properties.getFallbackTtlMs() <= 0) {
+                return templates;
+            }
+            expiresAt = now + properties.getFallbackTtlMs();
+        } else {
+            expiresAt = properties.getTtlMs() > 0 ? now + properties.getTtlMs() : 0;
+        }
+        if (cache.size() >= properties.getMaxEntries()) {
+            cache.clear();
+        }
+        cache.put(key, new CachedSuggestions(templates, expiresAt));
+        return templates;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public void clear() {
+        cache.clear();
+    }
+
+    private void invalidateIfStale(long currentTaxonomyVersion, SuggestionRuleSet currentRuleSet) {
+        if (currentTaxonomyVersion == taxonomyVersion && currentRuleSet == ruleSet) {
+            return;
+        }
+        synchronized (this) {
+            if (currentTaxonomyVersion != taxonomyVersion || currentRuleSet != ruleSet) {
+                if (ruleSet != null) {
+                    log.info("Taxonomy or suggestion rules changed, dropping {} cached suggestion sets",
+                            cache.size());
+                }
+                cache.clear();
+                extraCategories.clear();
+                taxonomyVersion = currentTaxonomyVersion;
+                ruleSet = currentRuleSet;
+            }
+        }
+    }
+
+    /**
+     * Packs the features into a long: energy in bits 0-7, environment in
+     * bits 8-9 (3 = none), stress flag in bit 10, bit 11 set for categories
+     * outside the taxonomy (e.g. the "neutral" fallback), and from bit 16 the
+     * category's taxonomy ordinal or its interned id.
+     */
+    private long featureKey(SuggestionRequest request, EmotionCategoryIndex categoryIndex) {
+        MoodEntry.Environment environment = request.getEnvironment();
+        long energy = request.getEnergyLevel() & 0xFF;
+        long env = environment != null ? environment.ordinal() : 3;
+        long stress = request.isStressMentioned() ? 1 : 0;
+        String primaryCategory = request.getPrimaryCategory();
+        int ordinal = primaryCategory != null ? categoryIndex.ordinalOf(primaryCategory) : EmotionCategoryIndex.UNKNOWN;
+        long extra = 0;
+        if (ordinal == EmotionCategoryIndex.UNKNOWN) {
+            extra = 1;
+            ordinal = extraCategories.computeIfAbsent(String.valueOf(primaryCategory),
+                    category -> extraCategoryIds.getAndIncrement());
+        }
+        return energy | env << 8 | stress << 10 | extra << 11 | (long) ordinal << 16;
+    }
+
+    private static final class CachedSuggestions {
+        private final List<ActivityTemplate> templates;
+        private final long expiresAt;
+
+        private CachedSuggestions(List<ActivityTemplate> templates, long expiresAt) {
+            this.templates = templates;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
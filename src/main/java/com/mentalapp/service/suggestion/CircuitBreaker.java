@@ -0,0 +1,72 @@
+package com.mentalapp.service.suggestion;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Minimal consecutive-failure circuit breaker.
+ *
+ * After {@code failureThreshold} failures in a row the circuit opens and
+ * calls are refused for {@code openMillis}. Then a single trial call is let
+ * through (half-open); its outcome closes or re-opens the circuit. A trial
+ * that ends without an outcome must be handed back with releaseTrial.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openMillis;
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicLong openedAt = new AtomicLong(-1);
+    private final AtomicBoolean trialInFlight = new AtomicBoolean();
+
+    public CircuitBreaker(int failureThreshold, long openMillis) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openMillis = openMillis;
+    }
+
+    public boolean allowRequest() {
+        long opened = openedAt.get();
+        if (opened < 0) {
+            return true;
+        }
+        if (System.currentTimeMillis() - opened < openMillis) {
+            return false;
+        }
+        return trialInFlight.compareAndSet(false, true);
+    }
+
+    /**
+     * Ends a trial call that produced no outcome, such as an interrupted wait,
+     * so a later call can be the trial. Does nothing when no trial is in flight.
+     */
+    public void releaseTrial() {
+        trialInFlight.set(false);
+    }
+
+    public void recordSuccess() {
+        consecutiveFailures.set(0);
+        openedAt.set(-1);
+        trialInFlight.set(false);
+    }
+
+    public void recordFailure() {
+        if (trialInFlight.getAndSet(false) || consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            openedAt.set(System.currentTimeMillis());
+        }
+    }
+
+    public State getState() {
+        long opened = openedAt.get();
+        if (opened < 0) {
+            return State.CLOSED;
+        }
+        return System.currentTimeMillis() - opened < openMillis ? State.OPEN : State.HALF_OPEN;
+    }
+}
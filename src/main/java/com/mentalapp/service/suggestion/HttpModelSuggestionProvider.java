@@ -0,0 +1,243 @@
+package com.mentalapp.service.suggestion;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mentalapp.config.SuggestionModelProperties;
+import com.mentalapp.entity.SuggestedActivity;
+import com.mentalapp.entity.SuggestionStrategy;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Suggestions from an external model over HTTP, guarded so that the model
+ * can never make suggestion generation slower than the deadline or fail it.
+ *
+ * Every call has a hard deadline and takes a concurrency permit; calls are
+ * hedged with a second request when the first is slow (or fails early);
+ * consecutive failures open a circuit breaker. Whenever the model does not
+ * produce a usable answer in time the fallback provider answers instead.
+ */
+@Slf4j
+public class HttpModelSuggestionProvider implements SuggestionProvider {
+
+    private static final int MAX_ATTEMPTS = 2;
+
+    private final SuggestionModelProperties properties;
+    private final SuggestionProvider fallback;
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient;
+    private final Semaphore permits;
+    private final CircuitBreaker circuitBreaker;
+    private final URI endpoint;
+
+    public HttpModelSuggestionProvider(SuggestionModelProperties properties, SuggestionProvider fallback,
+            ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.fallback = fallback;
+        this.objectMapper = objectMapper;
+        this.endpoint = URI.create(properties.getEndpoint());
+        this.permits = new Semaphore(properties.getMaxConcurrency());
+        this.circuitBreaker = new CircuitBreaker(properties.getCircuitFailureThreshold(),
+                properties.getCircuitOpenMs());
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(properties.getConnectTimeoutMs()))
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+    }
+
+    @Override
+    public String getName() {
+        return "model";
+    }
+
+    public CircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
+    }
+
+    @Override
+    public List<ActivityTemplate> suggest(SuggestionRequest request) {
+        return suggestWithSource(request).getTemplates();
+    }
+
+    @Override
+    public SuggestionResult suggestWithSource(SuggestionRequest request) {
+        // The permit comes first, so a call turned away here never takes the half-open trial
+        if (!permits.tryAcquire()) {
+            return fallback(request, "concurrency limit reached");
+        }
+        HedgedCall call = null;
+        boolean settled = false;
+        try {
+            if (!circuitBreaker.allowRequest()) {
+                settled = true;
+                return fallback(request, "circuit open");
+            }
+            call = hedgedCall(serialize(request));
+            List<ActivityTemplate> templates = call.result.get(properties.getDeadlineMs(), TimeUnit.MILLISECONDS);
+            circuitBreaker.recordSuccess();
+            settled = true;
+            return SuggestionResult.answered(templates);
+        } catch (TimeoutException e) {
+            circuitBreaker.recordFailure();
+            settled = true;
+            return fallback(request, "deadline of " + properties.getDeadlineMs() + " ms exceeded");
+        } catch (ExecutionException | RuntimeException e) {
+            circuitBreaker.recordFailure();
+            settled = true;
+            Throwable cause = e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e;
+            return fallback(request, cause.toString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return fallback(request, "interrupted");
+        } finally {
+            if (!settled) {
+                circuitBreaker.releaseTrial();
+            }
+            // Stops the HTTP exchanges too, so the permit bounds the requests actually in flight
+            if (call != null) {
+                call.cancel();
+            }
+            permits.release();
+        }
+    }
+
+    /**
+     * First successful attempt wins. The hedge goes out after the hedge delay,
+     * or right away if the first attempt fails before that.
+     */
+    private HedgedCall hedgedCall(String body) {
+        HedgedCall call = new HedgedCall();
+        AtomicInteger launched = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+
+        Runnable[] launch = new Runnable[1];
+        launch[0] = () -> {
+            if (call.result.isDone() || launched.incrementAndGet() > MAX_ATTEMPTS) {
+                return;
+            }
+            CompletableFuture<HttpResponse<String>> exchange = send(body);
+            call.attempts.add(exchange);
+            if (call.result.isDone()) {
+                // Cancelled while this attempt was being sent
+                exchange.cancel(true);
+                return;
+            }
+            exchange.thenApply(this::parse).whenComplete((templates, error) -> {
+                if (error == null) {
+                    call.result.complete(templates);
+                } else if (failed.incrementAndGet() >= MAX_ATTEMPTS) {
+                    call.result.completeExceptionally(error);
+                } else {
+                    launch[0].run();
+                }
+            });
+        };
+
+        launch[0].run();
+        CompletableFuture.delayedExecutor(properties.getHedgeDelayMs(), TimeUnit.MILLISECONDS)
+                .execute(launch[0]);
+        return call;
+    }
+
+    private CompletableFuture<HttpResponse<String>> send(String body) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(endpoint)
+                .timeout(Duration.ofMillis(properties.getDeadlineMs()))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (properties.getApiKey() != null && !properties.getApiKey().isBlank()) {
+            builder.header("Authorization", "Bearer " + properties.getApiKey());
+        }
+        return httpClient.sendAsync(builder.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private List<ActivityTemplate> parse(HttpResponse<String> response) {
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Model returned HTTP " + response.statusCode());
+        }
+        ModelResponse parsed;
+        try {
+            parsed = objectMapper.readValue(response.body(), ModelResponse.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable model response", e);
+        }
+
+        Map<SuggestionStrategy, ActivityTemplate> byStrategy = new EnumMap<>(SuggestionStrategy.class);
+        for (ModelSuggestion suggestion : parsed.getSuggestions()) {
+            if (suggestion.getStrategy() == null || suggestion.getTitle() == null
+                    || suggestion.getCategory() == null) {
+                continue;
+            }
+            byStrategy.putIfAbsent(suggestion.getStrategy(), ActivityTemplate.builder()
+                    .key("model:" + suggestion.getStrategy().name().toLowerCase())
+                    .title(suggestion.getTitle())
+                    .description(suggestion.getDescription())
+                    .category(suggestion.getCategory())
+                    .durationMinutes(suggestion.getDurationMinutes())
+                    .difficulty(suggestion.getDifficulty())
+                    .build());
+        }
+        if (byStrategy.size() != SuggestionStrategy.values().length) {
+            throw new IllegalStateException("Model response does not cover every strategy: " + byStrategy.keySet());
+        }
+        return List.copyOf(byStrategy.values());
+    }
+
+    private String serialize(SuggestionRequest request) {
+        try {
+            return objectMapper.writeValueAsString(request);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private SuggestionResult fallback(SuggestionRequest request, String reason) {
+        log.warn("Model suggestions unavailable ({}), using {} provider", reason, fallback.getName());
+        return SuggestionResult.fallback(fallback.suggest(request));
+    }
+
+    /**
+     * The first-wins result of a hedged call and the HTTP exchanges behind it.
+     * Cancelling the result alone would leave the exchanges running.
+     */
+    private static final class HedgedCall {
+        private final CompletableFuture<List<ActivityTemplate>> result = new CompletableFuture<>();
+        private final List<CompletableFuture<HttpResponse<String>>> attempts = new CopyOnWriteArrayList<>();
+
+        void cancel() {
+            result.cancel(true);
+            attempts.forEach(attempt -> attempt.cancel(true));
+        }
+    }
+
+    @Data
+    static class ModelResponse {
+        private List<ModelSuggestion> suggestions = new ArrayList<>();
+    }
+
+    @Data
+    static class ModelSuggestion {
+        private SuggestionStrategy strategy;
+        private String title;
+        private String description;
+        private SuggestedActivity.ActivityCategory category;
+        private Integer durationMinutes;
+        private SuggestedActivity.DifficultyLevel difficulty;
+    }
+}
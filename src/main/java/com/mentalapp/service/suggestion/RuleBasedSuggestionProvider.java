@@ -0,0 +1,27 @@
+package com.mentalapp.service.suggestion;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Suggestions from the compiled rule table; always available, used as the fallback
+ */
+@Component
+@RequiredArgsConstructor
+public class RuleBasedSuggestionProvider implements SuggestionProvider {
+
+    private final SuggestionRuleEngine suggestionRuleEngine;
+
+    @Override
+    public String getName() {
+        return "rules";
+    }
+
+    @Override
+    public List<ActivityTemplate> suggest(SuggestionRequest request) {
+        return suggestionRuleEngine.evaluate(request.getEnergyLevel(), request.getPrimaryCategory(),
+                request.getEnvironment(), request.isStressMentioned());
+    }
+}
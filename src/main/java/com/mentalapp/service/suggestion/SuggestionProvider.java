@@ -0,0 +1,27 @@
+package com.mentalapp.service.suggestion;
+
+import com.mentalapp.entity.SuggestionStrategy;
+
+import java.util.List;
+
+/**
+ * Source of activity suggestions for a mood entry's features.
+ *
+ * Implementations return one template per {@link SuggestionStrategy}, in
+ * strategy order, and must not throw: a provider that cannot answer falls
+ * back to another one.
+ */
+public interface SuggestionProvider {
+
+    String getName();
+
+    List<ActivityTemplate> suggest(SuggestionRequest request);
+
+    /**
+     * Like suggest, but also tells whether the answer came from a fallback
+     * provider, e.g. so it is not cached like a real answer
+     */
+    default SuggestionResult suggestWithSource(SuggestionRequest request) {
+        return SuggestionResult.answered(suggest(request));
+    }
+}
@@ -0,0 +1,18 @@
+package com.mentalapp.service.suggestion;
+
+import com.mentalapp.entity.MoodEntry;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * The features of a mood entry that suggestions are derived from
+ */
+@Value
+@Builder
+public class SuggestionRequest {
+
+    int energyLevel;
+    String primaryCategory;
+    MoodEntry.Environment environment;
+    boolean stressMentioned;
+}
@@ -0,0 +1,23 @@
+package com.mentalapp.service.suggestion;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * A provider's templates together with whether its fallback produced them
+ */
+@Value
+public class SuggestionResult {
+
+    List<ActivityTemplate> templates;
+    boolean fallback;
+
+    public static SuggestionResult answered(List<ActivityTemplate> templates) {
+        return new SuggestionResult(templates, false);
+    }
+
+    public static SuggestionResult fallback(List<ActivityTemplate> templates) {
+        return new SuggestionResult(templates, true);
+    }
+}
@@ -0,0 +1,156 @@
+package com.mentalapp.service.suggestion;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mentalapp.config.SuggestionRuleProperties;
+import com.mentalapp.entity.MoodEntry;
+import com.mentalapp.entity.SuggestedActivity;
+import com.mentalapp.entity.SuggestionStrategy;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Loads the suggestion rule file, compiles it into a {@link SuggestionRuleSet}
+ * and swaps in a new rule set whenever the file changes. A rule file that
+ * fails to parse or compile is rejected and the previous rules stay active.
+ */
+@Component
+@Slf4j
+public class SuggestionRuleEngine {
+
+    private final ObjectMapper objectMapper;
+    private final ResourceLoader resourceLoader;
+    private final SuggestionRuleProperties properties;
+
+    private volatile SuggestionRuleSet ruleSet;
+    private volatile long loadedModified = -1;
+
+    public SuggestionRuleEngine(ObjectMapper objectMapper, ResourceLoader resourceLoader,
+            SuggestionRuleProperties properties) {
+        this.objectMapper = objectMapper;
+        this.resourceLoader = resourceLoader;
+        this.properties = properties;
+        this.ruleSet = load();
+    }
+
+    /**
+     * Templates for all strategies, indexed by {@link SuggestionStrategy#ordinal()}
+     */
+    public List<ActivityTemplate> evaluate(int energyLevel, String primaryCategory,
+            MoodEntry.Environment environment, boolean stressMentioned) {
+        return ruleSet.evaluate(energyLevel, primaryCategory, environment, stressMentioned);
+    }
+
+    public SuggestionRuleSet getRuleSet() {
+        return ruleSet;
+    }
+
+    /**
+     * Re-read and recompile the rule file
+     */
+    public synchronized SuggestionRuleSet reload() {
+        ruleSet = load();
+        return ruleSet;
+    }
+
+    @Scheduled(fixedDelayString = "${mentalapp.suggestions.rules.reload-interval-ms:30000}")
+    public void reloadIfModified() {
+        Resource resource = resourceLoader.getResource(properties.getLocation());
+        if (!resource.isFile()) {
+            return;
+        }
+        try {
+            if (resource.lastModified() != loadedModified) {
+                log.info("Suggestion rules changed at {}, reloading", properties.getLocation());
+                reload();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Could not reload suggestion rules from {}, keeping previous rules",
+                    properties.getLocation(), e);
+        }
+    }
+
+    private SuggestionRuleSet load() {
+        Resource resource = resourceLoader.getResource(properties.getLocation());
+        try (InputStream in = resource.getInputStream()) {
+            long modified = resource.isFile() ? resource.lastModified() : -1;
+            SuggestionRuleSet compiled = compile(objectMapper.readValue(in, RuleFile.class));
+            loadedModified = modified;
+            log.info("Loaded {} suggestion templates into a {}-cell decision table from {}",
+                    compiled.getTemplateCount(), compiled.getCellCount(), properties.getLocation());
+            return compiled;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read suggestion rules from " + properties.getLocation(), e);
+        }
+    }
+
+    private static SuggestionRuleSet compile(RuleFile file) {
+        Map<String, ActivityTemplate> templates = new HashMap<>();
+        file.getTemplates().forEach((key, definition) -> templates.put(key, ActivityTemplate.builder()
+                .key(key)
+                .title(definition.getTitle())
+                .description(definition.getDescription())
+                .category(definition.getCategory())
+                .durationMinutes(definition.getDurationMinutes())
+                .difficulty(definition.getDifficulty())
+                .build()));
+
+        List<SuggestionRuleSet.Rule> rules = new ArrayList<>(file.getRules().size());
+        for (RuleDefinition definition : file.getRules()) {
+            ActivityTemplate template = templates.get(definition.getTemplate());
+            if (template == null) {
+                throw new IllegalArgumentException("Unknown suggestion template: " + definition.getTemplate());
+            }
+            if (definition.getStrategy() == null) {
+                throw new IllegalArgumentException("Rule for template " + definition.getTemplate()
+                        + " has no strategy");
+            }
+            rules.add(new SuggestionRuleSet.Rule(definition.getStrategy(),
+                    Set.copyOf(definition.getEnergy()),
+                    Set.copyOf(definition.getCategories()),
+                    Set.copyOf(definition.getEnvironments()),
+                    definition.getStressMentioned(),
+                    template));
+        }
+        return SuggestionRuleSet.compile(rules, templates.size());
+    }
+
+    @Data
+    static class RuleFile {
+        private Map<String, TemplateDefinition> templates = new LinkedHashMap<>();
+        private List<RuleDefinition> rules = new ArrayList<>();
+    }
+
+    @Data
+    static class TemplateDefinition {
+        private String title;
+        private String description;
+        private SuggestedActivity.ActivityCategory category;
+        private Integer durationMinutes;
+        private SuggestedActivity.DifficultyLevel difficulty;
+    }
+
+    @Data
+    static class RuleDefinition {
+        private SuggestionStrategy strategy;
+        private Set<Integer> energy = new LinkedHashSet<>();
+        private Set<String> categories = new LinkedHashSet<>();
+        private Set<MoodEntry.Environment> environments = new LinkedHashSet<>();
+        private Boolean stressMentioned;
+        private String template;
+    }
+}
@@ -0,0 +1,157 @@
+package com.mentalapp.service.suggestion;
+
+import com.mentalapp.entity.MoodEntry;
+import com.mentalapp.entity.SuggestionStrategy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A rule set compiled into a flat decision table.
+ *
+ * The table has one cell per (energy level, primary category, environment,
+ * stress flag); each cell holds the pre-resolved templates for all
+ * strategies. Evaluation is a handful of integer operations and an array
+ * read, and returns a shared immutable list.
+ */
+public final class SuggestionRuleSet {
+
+    public static final int MIN_ENERGY = 1;
+    public static final int MAX_ENERGY = 5;
+
+    private static final int ENERGY_LEVELS = MAX_ENERGY - MIN_ENERGY + 1;
+    private static final int ENVIRONMENTS = MoodEntry.Environment.values().length;
+    private static final int FLAGS = 2;
+
+    private final Map<String, Integer> categorySlots;
+    private final int defaultCategorySlot;
+    private final List<List<ActivityTemplate>> cells;
+    private final int templateCount;
+
+    private SuggestionRuleSet(Map<String, Integer> categorySlots, int defaultCategorySlot,
+            List<List<ActivityTemplate>> cells, int templateCount) {
+        this.categorySlots = categorySlots;
+        this.defaultCategorySlot = defaultCategorySlot;
+        this.cells = cells;
+        this.templateCount = templateCount;
+    }
+
+    /**
+     * Compile ordered rules; for each strategy the first matching rule wins,
+     * and every strategy must have a rule matching every cell.
+     */
+    static SuggestionRuleSet compile(List<Rule> rules, int templateCount) {
+        Set<String> categories = new LinkedHashSet<>();
+        for (Rule rule : rules) {
+            categories.addAll(rule.categories);
+        }
+        Map<String, Integer> categorySlots = new HashMap<>();
+        for (String category : categories) {
+            categorySlots.put(category, categorySlots.size());
+        }
+        int defaultSlot = categorySlots.size();
+        int categoryCount = defaultSlot + 1;
+        String[] slotNames = new String[categoryCount];
+        categorySlots.forEach((name, slot) -> slotNames[slot] = name);
+
+        SuggestionStrategy[] strategies = SuggestionStrategy.values();
+        MoodEntry.Environment[] environments = MoodEntry.Environment.values();
+        List<List<ActivityTemplate>> cells = new ArrayList<>(
+                Collections.nCopies(ENERGY_LEVELS * categoryCount * ENVIRONMENTS * FLAGS, null));
+
+        for (int energy = MIN_ENERGY; energy <= MAX_ENERGY; energy++) {
+            for (int slot = 0; slot < categoryCount; slot++) {
+                for (MoodEntry.Environment environment : environments) {
+                    for (int flag = 0; flag < FLAGS; flag++) {
+                        ActivityTemplate[] resolved = new ActivityTemplate[strategies.length];
+                        for (SuggestionStrategy strategy : strategies) {
+                            resolved[strategy.ordinal()] = firstMatch(rules, strategy, energy, slotNames[slot],
+                                    environment, flag == 1);
+                        }
+                        cells.set(index(energy, slot, categoryCount, environment.ordinal(), flag),
+                                List.of(resolved));
+                    }
+                }
+            }
+        }
+        return new SuggestionRuleSet(Map.copyOf(categorySlots), defaultSlot, List.copyOf(cells), templateCount);
+    }
+
+    private static ActivityTemplate firstMatch(List<Rule> rules, SuggestionStrategy strategy, int energy,
+            String category, MoodEntry.Environment environment, boolean stressMentioned) {
+        for (Rule rule : rules) {
+            if (rule.strategy == strategy && rule.matches(energy, category, environment, stressMentioned)) {
+                return rule.template;
+            }
+        }
+        throw new IllegalArgumentException("No " + strategy + " rule matches energy=" + energy
+                + ", category=" + (category != null ? category : "<other>") + ", environment=" + environment
+                + ", stressMentioned=" + stressMentioned + "; add a catch-all rule");
+    }
+
+    private static int index(int energy, int slot, int categoryCount, int environment, int flag) {
+        return (((energy - MIN_ENERGY) * categoryCount + slot) * ENVIRONMENTS + environment) * FLAGS + flag;
+    }
+
+    /**
+     * Templates for all strategies, indexed by {@link SuggestionStrategy#ordinal()}
+     */
+    public List<ActivityTemplate> evaluate(int energyLevel, String primaryCategory,
+            MoodEntry.Environment environment, boolean stressMentioned) {
+        int energy = Math.max(MIN_ENERGY, Math.min(MAX_ENERGY, energyLevel));
+        Integer slot = primaryCategory != null ? categorySlots.get(primaryCategory) : null;
+        int env = environment != null ? environment.ordinal() : MoodEntry.Environment.IN_GROUP.ordinal();
+        return cells.get(index(energy, slot != null ? slot : defaultCategorySlot, defaultCategorySlot + 1, env,
+                stressMentioned ? 1 : 0));
+    }
+
+    /**
+     * Categories that have dedicated rules; everything else shares the default slot
+     */
+    public Set<String> getCategories() {
+        return categorySlots.keySet();
+    }
+
+    public int getCellCount() {
+        return cells.size();
+    }
+
+    public int getTemplateCount() {
+        return templateCount;
+    }
+
+    /**
+     * One parsed rule; empty condition lists match everything
+     */
+    static final class Rule {
+        private final SuggestionStrategy strategy;
+        private final Set<Integer> energyLevels;
+        private final Set<String> categories;
+        private final Set<MoodEntry.Environment> environments;
+        private final Boolean stressMentioned;
+        private final ActivityTemplate template;
+
+        Rule(SuggestionStrategy strategy, Set<Integer> energyLevels, Set<String> categories,
+                Set<MoodEntry.Environment> environments, Boolean stressMentioned, ActivityTemplate template) {
+            this.strategy = strategy;
+            this.energyLevels = energyLevels;
+            this.categories = categories;
+            this.environments = environments;
+            this.stressMentioned = stressMentioned;
+            this.template = template;
+        }
+
+        private boolean matches(int energy, String category, MoodEntry.Environment environment,
+                boolean stress) {
+            return (energyLevels.isEmpty() || energyLevels.contains(energy))
+                    && (categories.isEmpty() || (category != null && categories.contains(category)))
+                    && (environments.isEmpty() || environments.contains(environment))
+                    && (stressMentioned == null || stressMentioned == stress);
+        }
+    }
+}
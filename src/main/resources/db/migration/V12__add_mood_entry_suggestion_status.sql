@@ -0,0 +1,22 @@
+-- Track asynchronous suggestion generation per mood entry
+ALTER TABLE mood_entries ADD COLUMN IF NOT EXISTS suggestion_status VARCHAR(20) NOT NULL DEFAULT 'READY';
+
+CREATE INDEX IF NOT EXISTS idx_mood_entries_suggestion_status ON mood_entries(suggestion_status)
+    WHERE suggestion_status <> 'READY';
+
+-- Status transitions are bookkeeping, not user edits: keep updated_at (and with it the
+-- "editable" check created_at = updated_at) untouched when only suggestion_status changes
+CREATE OR REPLACE FUNCTION update_mood_entries_updated_at_column()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF ROW(NEW.user_id, NEW.location, NEW.environment, NEW.description, NEW.energy_level,
+           NEW.entry_date, NEW.is_voice_input)
+       IS NOT DISTINCT FROM
+       ROW(OLD.user_id, OLD.location, OLD.environment, OLD.description, OLD.energy_level,
+           OLD.entry_date, OLD.is_voice_input) THEN
+        RETURN NEW;
+    END IF;
+    NEW.updated_at = CURRENT_TIMESTAMP;
+    RETURN NEW;
+END;
+$$ language 'plpgsql';
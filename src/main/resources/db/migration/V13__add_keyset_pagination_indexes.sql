@@ -0,0 +1,11 @@
+-- Composite indexes matching the keyset (seek) pagination order of the history listings,
+-- so every page is an index range scan regardless of how far back it starts
+CREATE INDEX IF NOT EXISTS idx_mood_entries_user_entry_date_id
+    ON mood_entries(user_id, entry_date DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_suggested_activities_user_date_id
+    ON suggested_activities(user_id, suggested_date DESC, id);
+
+CREATE INDEX IF NOT EXISTS idx_suggested_activities_user_completed_at_id
+    ON suggested_activities(user_id, completed_at DESC, id DESC)
+    WHERE is_completed = TRUE;
@@ -0,0 +1,20 @@
+-- Per-user daily totals of mood entries, maintained in the writing transaction
+CREATE TABLE IF NOT EXISTS mood_daily_rollups (
+    user_id BIGINT NOT NULL,
+    day DATE NOT NULL,
+    entry_count INTEGER NOT NULL DEFAULT 0,
+    energy_sum BIGINT NOT NULL DEFAULT 0,
+    energy_count INTEGER NOT NULL DEFAULT 0,
+    PRIMARY KEY (user_id, day),
+    CONSTRAINT fk_mood_daily_rollups_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+-- Entries per root emotion category and day (an entry counts once per category it mentions)
+CREATE TABLE IF NOT EXISTS mood_daily_category_rollups (
+    user_id BIGINT NOT NULL,
+    day DATE NOT NULL,
+    category_key VARCHAR(100) NOT NULL,
+    entry_count INTEGER NOT NULL DEFAULT 0,
+    PRIMARY KEY (user_id, day, category_key),
+    CONSTRAINT fk_mood_daily_category_rollups_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
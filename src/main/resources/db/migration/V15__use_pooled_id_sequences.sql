@@ -0,0 +1,20 @@
+-- Sequence-based ids with a pooled optimizer (allocationSize = 50), so
+-- Hibernate can batch inserts. Each nextval reserves the 50 ids ending at
+-- the returned value, hence the sequences start 50 past the current maximum.
+CREATE SEQUENCE IF NOT EXISTS users_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS mood_entries_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS suggested_activities_seq INCREMENT BY 50;
+
+SELECT setval('users_seq', COALESCE((SELECT MAX(id) FROM users), 0) + 50, false);
+SELECT setval('mood_entries_seq', COALESCE((SELECT MAX(id) FROM mood_entries), 0) + 50, false);
+SELECT setval('suggested_activities_seq', COALESCE((SELECT MAX(id) FROM suggested_activities), 0) + 50, false);
+
+-- Ids now always come from the application; a column default drawing from
+-- the old serial sequences would collide with the pooled ranges
+ALTER TABLE users ALTER COLUMN id DROP DEFAULT;
+ALTER TABLE mood_entries ALTER COLUMN id DROP DEFAULT;
+ALTER TABLE suggested_activities ALTER COLUMN id DROP DEFAULT;
+
+DROP SEQUENCE IF EXISTS users_id_seq;
+DROP SEQUENCE IF EXISTS mood_entries_id_seq;
+DROP SEQUENCE IF EXISTS suggested_activities_id_seq;
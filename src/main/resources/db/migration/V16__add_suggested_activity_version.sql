@@ -0,0 +1,15 @@
+-- Optimistic version of a suggested activity, bumped on every completion change
+ALTER TABLE suggested_activities ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+-- Idempotent completion retries rewrite the row with its current values: keep updated_at
+-- (like version) unchanged when nothing in the row actually changed
+CREATE OR REPLACE FUNCTION update_suggested_activities_updated_at_column()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF NEW IS NOT DISTINCT FROM OLD THEN
+        RETURN NEW;
+    END IF;
+    NEW.updated_at = CURRENT_TIMESTAMP;
+    RETURN NEW;
+END;
+$$ language 'plpgsql';
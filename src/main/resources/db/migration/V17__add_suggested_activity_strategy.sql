@@ -0,0 +1,10 @@
+-- Strategy slot (ENERGY, EMOTION, CONTEXT) a suggestion was generated for,
+-- so regeneration can replace only the slots whose activity changed
+ALTER TABLE suggested_activities ADD COLUMN IF NOT EXISTS strategy VARCHAR(20);
+
+-- Existing suggestions were always inserted in strategy order
+UPDATE suggested_activities s SET strategy = CASE ranked.slot
+        WHEN 1 THEN 'ENERGY' WHEN 2 THEN 'EMOTION' WHEN 3 THEN 'CONTEXT' END
+FROM (SELECT id, ROW_NUMBER() OVER (PARTITION BY mood_entry_id ORDER BY id) AS slot
+      FROM suggested_activities) ranked
+WHERE s.id = ranked.id AND s.strategy IS NULL AND ranked.slot <= 3;
@@ -0,0 +1,48 @@
+package com.mentalapp;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Minimal timing and allocation measurement for the tests tagged
+ * "benchmark" (run with {@code mvn test -Pbenchmark}). Each operation is
+ * warmed up first, then timed over many calls on the current thread.
+ * Numbers are indicative only; they are printed so runs can be compared.
+ */
+public final class MicroBenchmark {
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private MicroBenchmark() {
+    }
+
+    public interface Operation {
+        void run() throws Exception;
+    }
+
+    public record Result(String name, int operations, double nanosPerOp, double bytesPerOp) {
+
+        @Override
+        public String toString() {
+            return String.format("%-48s %12.1f ns/op %12.1f B/op  (%d ops)", name, nanosPerOp,
+                    bytesPerOp, operations);
+        }
+    }
+
+    public static Result measure(String name, int warmup, int operations, Operation operation) throws Exception {
+        for (int i = 0; i < warmup; i++) {
+            operation.run();
+        }
+        long thread = Thread.currentThread().getId();
+        long bytesBefore = THREADS.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        for (int i = 0; i < operations; i++) {
+            operation.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = THREADS.getThreadAllocatedBytes(thread) - bytesBefore;
+        Result result = new Result(name, operations, (double) elapsed / operations, (double) allocated / operations);
+        System.out.println("[benchmark] " + result);
+        return result;
+    }
+}
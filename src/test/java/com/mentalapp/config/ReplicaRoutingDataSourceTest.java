@@ -0,0 +1,122 @@
+package com.mentalapp.config;
+
+import com.mentalapp.entity.User;
+import com.mentalapp.service.ReadYourWritesTracker;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Routes over two embedded databases that each name themselves in a table,
+ * so every read shows which one served it.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private static final long USER_ID = 42L;
+
+    private final ReplicaRoutingProperties properties = new ReplicaRoutingProperties();
+    private final ReadYourWritesTracker tracker = new ReadYourWritesTracker(properties);
+
+    private HikariDataSource primary;
+    private HikariDataSource replica;
+    private ReplicaRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // Probed once on start only, so replica failures are found by the reads under test
+        properties.setHealthCheckIntervalMs(3_600_000);
+        properties.setConnectionTimeoutMs(500);
+
+        primary = database("primary", "primary");
+        replica = database("replica-1", "replica");
+
+        routing = new ReplicaRoutingDataSource(primary, List.of(replica), properties, tracker);
+        routing.afterPropertiesSet();
+        awaitHealthyReplicas(List.of("replica-1"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        routing.close();
+        primary.close();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheReplica() {
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+
+        assertThat(servedBy(dataSource, true)).isEqualTo("replica");
+        assertThat(servedBy(dataSource, false)).isEqualTo("primary");
+    }
+
+    @Test
+    void pinnedUserReadsFromThePrimary() {
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute("user", User.builder().id(USER_ID).build());
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        assertThat(servedBy(dataSource, true)).isEqualTo("replica");
+
+        tracker.pin(USER_ID);
+
+        assertThat(servedBy(dataSource, true)).isEqualTo("primary");
+    }
+
+    @Test
+    void readFallsBackToThePrimaryWhenTheReplicaFails() {
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        replica.close();
+
+        assertThat(servedBy(dataSource, true)).isEqualTo("primary");
+        assertThat(routing.getHealthyReplicas()).isEmpty();
+    }
+
+    @Test
+    void readOnlyFlagIsNotKnownYetWithoutTheLazyProxy() {
+        // The transaction manager takes its connection before marking the transaction read-only
+        assertThat(servedBy(routing, true)).isEqualTo("primary");
+    }
+
+    private static String servedBy(DataSource dataSource, boolean readOnly) {
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transaction.setReadOnly(readOnly);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        return transaction.execute(status -> jdbcTemplate.queryForObject("SELECT name FROM node", String.class));
+    }
+
+    private static HikariDataSource database(String poolName, String nodeName) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(poolName);
+        dataSource.setJdbcUrl("jdbc:h2:mem:" + nodeName + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        dataSource.setUsername("sa");
+        dataSource.setMaximumPoolSize(2);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE node (name VARCHAR(20))");
+        jdbcTemplate.update("INSERT INTO node (name) VALUES (?)", nodeName);
+        return dataSource;
+    }
+
+    private void awaitHealthyReplicas(List<String> expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!routing.getHealthyReplicas().equals(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(routing.getHealthyReplicas()).isEqualTo(expected);
+    }
+}
@@ -0,0 +1,30 @@
+package com.mentalapp.controller;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EmotionControllerTest {
+
+    @Test
+    void acceptsGzipOnlyWhenListedWithPositiveQuality() {
+        assertThat(EmotionController.acceptsGzip("gzip, deflate, br")).isTrue();
+        assertThat(EmotionController.acceptsGzip("GZIP")).isTrue();
+        assertThat(EmotionController.acceptsGzip("x-gzip")).isTrue();
+        assertThat(EmotionController.acceptsGzip("br;q=1.0, gzip;q=0.5")).isTrue();
+
+        assertThat(EmotionController.acceptsGzip(null)).isFalse();
+        assertThat(EmotionController.acceptsGzip("identity")).isFalse();
+        assertThat(EmotionController.acceptsGzip("gzip;q=0")).isFalse();
+        assertThat(EmotionController.acceptsGzip("gzip; q=0.000, br")).isFalse();
+        assertThat(EmotionController.acceptsGzip("gzipped")).isFalse();
+    }
+
+    @Test
+    void wildcardAppliesOnlyWithoutExplicitGzip() {
+        assertThat(EmotionController.acceptsGzip("*")).isTrue();
+        assertThat(EmotionController.acceptsGzip("*;q=0")).isFalse();
+        assertThat(EmotionController.acceptsGzip("gzip;q=0, *")).isFalse();
+        assertThat(EmotionController.acceptsGzip("*;q=0, gzip")).isTrue();
+    }
+}
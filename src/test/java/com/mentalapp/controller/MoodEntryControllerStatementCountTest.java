@@ -0,0 +1,167 @@
+package com.mentalapp.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mentalapp.entity.MoodEntry;
+import com.mentalapp.entity.User;
+import com.mentalapp.repository.UserRepository;
+import com.mentalapp.service.MoodRollupService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Guards the number of SQL statements behind the mood entry endpoints, so
+ * single-entity responses keep being built from the entity and list pages
+ * keep loading their details in one query each whatever the page size.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc(addFilters = false)
+@ActiveProfiles("test")
+class MoodEntryControllerStatementCountTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /** Rollups are maintained with Postgres upserts */
+    @MockBean
+    private MoodRollupService moodRollupService;
+
+    private Statistics statistics;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        user = userRepository.save(User.builder()
+                .email(UUID.randomUUID() + "@example.com")
+                .password("secret")
+                .authProvider(User.AuthProvider.EMAIL)
+                .build());
+    }
+
+    @Test
+    void createBuildsTheResponseFromTheSavedEntry() throws Exception {
+        // Warm up so the pooled sequences have a block allocated before the measured request
+        createEntry("first");
+        createEntry("second");
+
+        statistics.clear();
+        JsonNode created = createEntry("third");
+
+        assertThat(created.get("emotionKeys")).hasSize(2);
+        assertThat(created.get("suggestedActivitiesCount").asInt()).isPositive();
+        assertThat(statistics.getEntityUpdateCount()).isZero();
+        assertThat(statistics.getQueryExecutionCount()).isZero();
+        assertThat(statistics.getCollectionFetchCount()).isZero();
+        // The entry, its emotion keys and its suggestions, one batched insert each
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    @Test
+    void getByIdLoadsTheEntryAndCountsItsSuggestions() throws Exception {
+        JsonNode created = createEntry("lookup");
+        long id = created.get("id").asLong();
+
+        statistics.clear();
+        JsonNode fetched = read(mockMvc.perform(as(get("/api/mood-entries/{id}", id))));
+
+        assertThat(fetched.get("emotionKeys")).hasSize(2);
+        assertThat(fetched.get("suggestedActivitiesCount").asInt())
+                .isEqualTo(created.get("suggestedActivitiesCount").asInt());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void updateDoesNotReloadTheEntryForTheResponse() throws Exception {
+        JsonNode created = createEntry("before");
+        long id = created.get("id").asLong();
+
+        statistics.clear();
+        JsonNode updated = read(mockMvc.perform(as(put("/api/mood-entries/{id}", id))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of(
+                        "emotionKeys", List.of("joy", "calm"),
+                        "environment", MoodEntry.Environment.ALONE,
+                        "description", "before",
+                        "location", "park",
+                        "energyLevel", 3)))));
+
+        assertThat(updated.get("location").asText()).isEqualTo("park");
+        assertThat(updated.get("suggestedActivitiesCount").asInt())
+                .isEqualTo(created.get("suggestedActivitiesCount").asInt());
+        // The lookup with its emotion keys and the suggestion count
+        assertThat(statistics.getQueryExecutionCount()).isEqualTo(2);
+        assertThat(statistics.getCollectionFetchCount()).isZero();
+    }
+
+    @Test
+    void listPageStatementsDoNotGrowWithThePage() throws Exception {
+        createEntry("one");
+        createEntry("two");
+
+        statistics.clear();
+        read(mockMvc.perform(as(get("/api/mood-entries"))));
+        long smallPage = statistics.getPrepareStatementCount();
+
+        for (int i = 0; i < 8; i++) {
+            createEntry("more " + i);
+        }
+        statistics.clear();
+        JsonNode page = read(mockMvc.perform(as(get("/api/mood-entries"))));
+
+        assertThat(page.get("items")).hasSize(10);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(smallPage);
+        // The page, its emotion keys and its suggestion counts
+        assertThat(smallPage).isEqualTo(3);
+    }
+
+    private JsonNode createEntry(String description) throws Exception {
+        return read(mockMvc.perform(as(post("/api/mood-entries"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of(
+                        "emotionKeys", List.of("joy", "calm"),
+                        "environment", MoodEntry.Environment.ALONE,
+                        "description", description,
+                        "energyLevel", 3)))));
+    }
+
+    private MockHttpServletRequestBuilder as(MockHttpServletRequestBuilder request) {
+        return request.requestAttr("user", user);
+    }
+
+    private JsonNode read(ResultActions result) throws Exception {
+        return objectMapper.readTree(result.andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+    }
+}
@@ -0,0 +1,148 @@
+package com.mentalapp.repository;
+
+import com.mentalapp.MicroBenchmark;
+import com.mentalapp.dto.MoodEntryResponse;
+import com.mentalapp.entity.MoodEntry;
+import com.mentalapp.entity.User;
+import com.mentalapp.service.MoodRollupService;
+import com.mentalapp.service.PageCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Heap and latency of one mood entry list page read as response DTOs
+ * straight from the query, against loading managed entities and copying
+ * them into the same DTOs. Emotion keys and suggestion counts are loaded
+ * the same way on both paths and left out.
+ *
+ * Entities are measured in read-only and read-write transactions, since
+ * read-only sessions keep no dirty-checking snapshots. Run with
+ * {@code mvn test -Pbenchmark}. The database is in-memory H2 on the
+ * measuring thread, so its own work is included and network time is not.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Tag("benchmark")
+class MoodEntryProjectionBenchmarkTest {
+
+    private static final int ENTRIES = 500;
+    private static final int PAGE_SIZE = PageCursor.DEFAULT_LIMIT + 1;
+    private static final int WARMUP = 2_000;
+    private static final int OPERATIONS = 5_000;
+
+    @Autowired
+    private MoodEntryRepository moodEntryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /** Rollups are maintained with Postgres upserts */
+    @MockBean
+    private MoodRollupService moodRollupService;
+
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+    private Long userId;
+    private int sink;
+
+    @BeforeEach
+    void seed() {
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+
+        User user = userRepository.save(User.builder()
+                .email(UUID.randomUUID() + "@example.com")
+                .password("secret")
+                .authProvider(User.AuthProvider.EMAIL)
+                .build());
+        userId = user.getId();
+        LocalDateTime start = LocalDateTime.now().minusDays(ENTRIES);
+        List<MoodEntry> entries = new ArrayList<>(ENTRIES);
+        for (int i = 0; i < ENTRIES; i++) {
+            entries.add(MoodEntry.builder()
+                    .user(user)
+                    .emotionKeys(List.of("joy", "calm"))
+                    .environment(MoodEntry.Environment.ALONE)
+                    .location("home")
+                    .description("Entry " + i + " with a description of typical length for a diary note.")
+                    .energyLevel(1 + i % 5)
+                    .isVoiceInput(false)
+                    .entryDate(start.plusDays(i))
+                    .build());
+        }
+        moodEntryRepository.saveAll(entries);
+    }
+
+    @Test
+    void projectionAgainstEntityHydration() throws Exception {
+        assertThat(projectedPage()).isEqualTo(hydratedPage());
+        Integer hydratedEntities = readOnly.execute(status -> {
+            hydratedPage();
+            return managedEntities();
+        });
+        Integer projectedEntities = readOnly.execute(status -> {
+            projectedPage();
+            return managedEntities();
+        });
+        assertThat(hydratedEntities).isEqualTo(PAGE_SIZE);
+        assertThat(projectedEntities).isZero();
+
+        MicroBenchmark.measure("entities, read-write transaction", WARMUP, OPERATIONS,
+                () -> sink += readWrite.execute(status -> hydratedPage()).size());
+        MicroBenchmark.measure("entities, read-only transaction", WARMUP, OPERATIONS,
+                () -> sink += readOnly.execute(status -> hydratedPage()).size());
+        MicroBenchmark.measure("DTO projection, read-only transaction", WARMUP, OPERATIONS,
+                () -> sink += readOnly.execute(status -> projectedPage()).size());
+
+        assertThat(sink).isPositive();
+    }
+
+    private List<MoodEntryResponse> projectedPage() {
+        return moodEntryRepository.findFirstPageByUserId(userId, PageRequest.ofSize(PAGE_SIZE));
+    }
+
+    /** The list path before the projection: managed entities copied field by field */
+    private List<MoodEntryResponse> hydratedPage() {
+        return entityManager.createQuery("SELECT m FROM MoodEntry m WHERE m.user.id = :userId "
+                        + "ORDER BY m.entryDate DESC, m.id DESC", MoodEntry.class)
+                .setParameter("userId", userId)
+                .setMaxResults(PAGE_SIZE)
+                .getResultList()
+                .stream()
+                .map(entry -> new MoodEntryResponse(entry.getId(), entry.getLocation(), entry.getEnvironment(),
+                        entry.getDescription(), entry.getEnergyLevel(), entry.getIsVoiceInput(),
+                        entry.getEntryDate(), entry.getCreatedAt(), entry.getUpdatedAt(),
+                        entry.getSuggestionStatus()))
+                .collect(Collectors.toList());
+    }
+
+    private int managedEntities() {
+        return entityManager.unwrap(Session.class).getStatistics().getEntityCount();
+    }
+}
@@ -0,0 +1,117 @@
+package com.mentalapp.service;
+
+import com.mentalapp.MicroBenchmark;
+import com.mentalapp.entity.MoodEntry;
+import com.mentalapp.entity.User;
+import com.mentalapp.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Statements and latency per mood entry creation with pooled sequence ids
+ * and JDBC batching, against the same flush with batching switched off,
+ * which is how every row went out while ids were IDENTITY columns. Run
+ * with {@code mvn test -Pbenchmark}. Each prepared statement is one round
+ * trip to the database; on in-memory H2 the latency leaves out the network.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Tag("benchmark")
+class MoodEntryCreationBenchmarkTest {
+
+    private static final int WARMUP = 1_000;
+    private static final int OPERATIONS = 2_000;
+
+    @Autowired
+    private MoodEntryService moodEntryService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /** Rollups are maintained with Postgres upserts */
+    @MockBean
+    private MoodRollupService moodRollupService;
+
+    private TransactionTemplate transaction;
+    private Statistics statistics;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        transaction = new TransactionTemplate(transactionManager);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        user = userRepository.save(User.builder()
+                .email(UUID.randomUUID() + "@example.com")
+                .password("secret")
+                .authProvider(User.AuthProvider.EMAIL)
+                .build());
+    }
+
+    @Test
+    void batchedAgainstUnbatchedCreation() throws Exception {
+        MicroBenchmark.Operation batching = create(null);
+        MicroBenchmark.Operation rowByRow = create(1);
+        // Both paths share the service code, so warm it up on both before measuring either
+        for (int i = 0; i < WARMUP; i++) {
+            batching.run();
+            rowByRow.run();
+        }
+
+        double batched = statementsPerCreate("pooled ids, JDBC batches", batching);
+        double unbatched = statementsPerCreate("one statement per row", rowByRow);
+
+        // Entry, emotion keys and suggestions: one batch each, plus a sequence call per 50 ids
+        assertThat(batched).isLessThan(3.1);
+        assertThat(batched).isLessThan(unbatched);
+    }
+
+    private MicroBenchmark.Operation create(Integer jdbcBatchSize) {
+        return () -> transaction.executeWithoutResult(status -> {
+            if (jdbcBatchSize != null) {
+                entityManager.unwrap(Session.class).setJdbcBatchSize(jdbcBatchSize);
+            }
+            moodEntryService.createMoodEntry(MoodEntry.builder()
+                    .emotionKeys(List.of("joy", "calm"))
+                    .environment(MoodEntry.Environment.ALONE)
+                    .description("A walk after work")
+                    .energyLevel(3)
+                    .isVoiceInput(false)
+                    .build(), user);
+        });
+    }
+
+    private double statementsPerCreate(String name, MicroBenchmark.Operation create) throws Exception {
+        long before = statistics.getPrepareStatementCount();
+        MicroBenchmark.measure(name, 0, OPERATIONS, create);
+        double statements = (double) (statistics.getPrepareStatementCount() - before) / OPERATIONS;
+        System.out.printf("[benchmark] %-48s %12.2f statements/op%n", name, statements);
+        return statements;
+    }
+}
@@ -0,0 +1,103 @@
+package com.mentalapp.service;
+
+import com.mentalapp.config.TodayCacheProperties;
+import com.mentalapp.dto.MoodEntryResponse;
+import com.mentalapp.dto.SuggestedActivityResponse;
+import com.mentalapp.repository.MoodEntryRepository;
+import com.mentalapp.repository.SuggestedActivityRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Patches arrive in listener order, not commit order; an older row must not
+ * replace a newer cached one
+ */
+class UserTodayCacheTest {
+
+    private static final Long USER_ID = 7L;
+
+    private final MoodEntryRepository moodEntryRepository = mock(MoodEntryRepository.class);
+    private final SuggestedActivityRepository suggestedActivityRepository = mock(SuggestedActivityRepository.class);
+    private UserTodayCache cache;
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        cache = new UserTodayCache(new TodayCacheProperties(), moodEntryRepository, suggestedActivityRepository);
+        now = LocalDateTime.now();
+    }
+
+    @Test
+    void keepsTheNewerActivityVersion() {
+        when(suggestedActivityRepository.findTodayActivitiesByUserId(USER_ID))
+                .thenReturn(List.of(activity(2L, true)));
+        cache.getTodayActivities(USER_ID);
+
+        cache.onTodayDataChanged(TodayDataChangedEvent.builder()
+                .userId(USER_ID)
+                .savedActivities(List.of(activity(1L, false)))
+                .build());
+
+        assertThat(cache.getTodayActivities(USER_ID)).singleElement()
+                .satisfies(activity -> assertThat(activity.getVersion()).isEqualTo(2L));
+
+        cache.onTodayDataChanged(TodayDataChangedEvent.builder()
+                .userId(USER_ID)
+                .savedActivities(List.of(activity(3L, false)))
+                .build());
+
+        assertThat(cache.getTodayActivities(USER_ID)).singleElement()
+                .satisfies(activity -> assertThat(activity.getIsCompleted()).isFalse());
+    }
+
+    @Test
+    void keepsTheNewerEntry() {
+        when(moodEntryRepository.findTodayMoodEntriesByUserId(eq(USER_ID), any(), any()))
+                .thenReturn(new ArrayList<>(List.of(entry("edited", now.plusSeconds(5)))));
+        cache.getTodayEntries(USER_ID);
+
+        cache.onTodayDataChanged(TodayDataChangedEvent.builder()
+                .userId(USER_ID)
+                .savedEntries(List.of(entry("original", now)))
+                .build());
+
+        assertThat(cache.getTodayEntries(USER_ID)).singleElement()
+                .satisfies(entry -> assertThat(entry.getDescription()).isEqualTo("edited"));
+    }
+
+    private SuggestedActivityResponse activity(Long version, boolean completed) {
+        return SuggestedActivityResponse.builder()
+                .id(10L)
+                .title("Walk")
+                .isCompleted(completed)
+                .suggestedDate(LocalDate.now())
+                .createdAt(now)
+                .updatedAt(now)
+                .moodEntryId(20L)
+                .version(version)
+                .build();
+    }
+
+    private MoodEntryResponse entry(String description, LocalDateTime updatedAt) {
+        return MoodEntryResponse.builder()
+                .id(20L)
+                .emotionKeys(List.of())
+                .description(description)
+                .entryDate(now)
+                .createdAt(now)
+                .updatedAt(updatedAt)
+                .suggestedActivitiesCount(0)
+                .build();
+    }
+}
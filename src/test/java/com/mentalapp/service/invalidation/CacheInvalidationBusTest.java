@@ -0,0 +1,167 @@
+package com.mentalapp.service.invalidation;
+
+import com.mentalapp.config.CacheInvalidationProperties;
+import com.mentalapp.config.ReplicaRoutingProperties;
+import com.mentalapp.service.EmotionCooccurrenceService;
+import com.mentalapp.service.EmotionService;
+import com.mentalapp.service.ReadYourWritesTracker;
+import com.mentalapp.service.UserDataChangedEvent;
+import com.mentalapp.service.UserStatisticsCache;
+import com.mentalapp.service.UserTodayCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * Runs buses as nodes sharing one loopback transport. Flushes are driven by
+ * the tests; the scheduled flush interval is far longer than any test.
+ */
+class CacheInvalidationBusTest {
+
+    private static final long USER_ID = 42L;
+
+    private final FlakyTransport transport = new FlakyTransport();
+    private final List<InvalidationBatch> delivered = new ArrayList<>();
+    private final List<CacheInvalidationBus> buses = new ArrayList<>();
+
+    @BeforeEach
+    void recordDeliveries() {
+        transport.start(new InvalidationTransport.Listener() {
+            @Override
+            public void onBatch(InvalidationBatch batch) {
+                delivered.add(batch);
+            }
+
+            @Override
+            public void onGap() {
+            }
+        });
+    }
+
+    @AfterEach
+    void stopBuses() {
+        buses.forEach(CacheInvalidationBus::stop);
+    }
+
+    @Test
+    void moodEntryChangeCoversTheUsersActivityChange() {
+        Node node = new Node("a");
+
+        node.bus.enqueue(InvalidationKey.user(InvalidationKey.Scope.USER_ACTIVITIES, USER_ID, 100));
+        node.bus.enqueue(InvalidationKey.user(InvalidationKey.Scope.USER_MOOD_ENTRIES, USER_ID, 200));
+        node.bus.enqueue(InvalidationKey.user(InvalidationKey.Scope.USER_ACTIVITIES, USER_ID, 300));
+        node.bus.enqueue(InvalidationKey.user(InvalidationKey.Scope.USER_ACTIVITIES, 7L, 400));
+
+        assertThat(node.bus.getPendingCount()).isEqualTo(2);
+        node.bus.flush();
+
+        assertThat(delivered).hasSize(1);
+        assertThat(delivered.get(0).getKeys()).containsExactly(
+                InvalidationKey.user(InvalidationKey.Scope.USER_MOOD_ENTRIES, USER_ID, 0),
+                InvalidationKey.user(InvalidationKey.Scope.USER_ACTIVITIES, 7L, 0));
+        // The coalesced key keeps the earliest commit, so the lag is not understated
+        assertThat(delivered.get(0).getKeys().get(0).getCommittedAt()).isEqualTo(100);
+    }
+
+    @Test
+    void keysAreSentAgainAfterAFailedSend() {
+        Node node = new Node("a");
+        node.bus.enqueue(InvalidationKey.user(InvalidationKey.Scope.USER_MOOD_ENTRIES, USER_ID, 100));
+        node.bus.enqueue(InvalidationKey.taxonomy(100));
+
+        transport.failNextSend = true;
+        node.bus.flush();
+
+        assertThat(delivered).isEmpty();
+        assertThat(node.bus.getPendingCount()).isEqualTo(2);
+
+        node.bus.flush();
+
+        assertThat(delivered).hasSize(1);
+        assertThat(delivered.get(0).getKeys()).containsExactly(
+                InvalidationKey.user(InvalidationKey.Scope.USER_MOOD_ENTRIES, USER_ID, 0),
+                InvalidationKey.taxonomy(0));
+        assertThat(node.bus.getPendingCount()).isZero();
+    }
+
+    @Test
+    void batchesAreAppliedOnOtherNodesOnly() {
+        Node sender = new Node("a");
+        Node receiver = new Node("b");
+
+        sender.bus.enqueue(InvalidationKey.user(InvalidationKey.Scope.USER_MOOD_ENTRIES, USER_ID, 100));
+        sender.bus.enqueue(InvalidationKey.taxonomy(100));
+        sender.bus.flush();
+
+        verifyNoInteractions(sender.statisticsCache, sender.todayCache, sender.cooccurrence, sender.emotions);
+        assertThat(sender.tracker.isPinned(USER_ID)).isFalse();
+
+        verify(receiver.statisticsCache).invalidate(USER_ID, UserDataChangedEvent.Kind.MOOD_ENTRIES);
+        verify(receiver.todayCache).invalidate(USER_ID);
+        verify(receiver.cooccurrence).invalidate(USER_ID);
+        verify(receiver.emotions).refreshTaxonomy();
+        assertThat(receiver.tracker.isPinned(USER_ID)).isTrue();
+    }
+
+    @Test
+    void gapDropsEverythingCached() {
+        Node node = new Node("a");
+
+        node.bus.onGap();
+
+        verify(node.statisticsCache).invalidateAll();
+        verify(node.todayCache).invalidateAll();
+        verify(node.cooccurrence).invalidateAll();
+        verify(node.emotions).refreshTaxonomy();
+    }
+
+    /** A bus with mocked caches, started on the shared transport */
+    private class Node {
+
+        final UserStatisticsCache statisticsCache = mock(UserStatisticsCache.class);
+        final UserTodayCache todayCache = mock(UserTodayCache.class);
+        final EmotionCooccurrenceService cooccurrence = mock(EmotionCooccurrenceService.class);
+        final EmotionService emotions = mock(EmotionService.class);
+        final ReadYourWritesTracker tracker = new ReadYourWritesTracker(new ReplicaRoutingProperties());
+        final CacheInvalidationBus bus;
+
+        Node(String nodeId) {
+            CacheInvalidationProperties properties = new CacheInvalidationProperties();
+            properties.setEnabled(true);
+            properties.setTransport(CacheInvalidationProperties.Transport.LOOPBACK);
+            properties.setNodeId(nodeId);
+            properties.setFlushIntervalMs(3_600_000);
+            bus = new CacheInvalidationBus(transport, properties, statisticsCache, todayCache, cooccurrence,
+                    emotions, new StaticListableBeanFactory(Map.of("tracker", tracker))
+                            .getBeanProvider(ReadYourWritesTracker.class),
+                    new SimpleMeterRegistry());
+            bus.start();
+            buses.add(bus);
+        }
+    }
+
+    private static class FlakyTransport extends LoopbackInvalidationTransport {
+
+        boolean failNextSend;
+
+        @Override
+        public void send(InvalidationBatch batch) {
+            if (failNextSend) {
+                failNextSend = false;
+                throw new IllegalStateException("channel unavailable");
+            }
+            super.send(batch);
+        }
+    }
+}
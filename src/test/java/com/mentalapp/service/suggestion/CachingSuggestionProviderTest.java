@@ -0,0 +1,119 @@
+package com.mentalapp.service.suggestion;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mentalapp.config.SuggestionCacheProperties;
+import com.mentalapp.config.SuggestionRuleProperties;
+import com.mentalapp.service.EmotionService;
+import com.mentalapp.service.EmotionTaxonomySnapshot;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Model answers stay cached; answers the model provider fell back on do not
+ */
+class CachingSuggestionProviderTest {
+
+    private static final SuggestionRequest REQUEST = SuggestionRequest.builder()
+            .energyLevel(3)
+            .primaryCategory("sad")
+            .stressMentioned(false)
+            .build();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private SuggestionRuleEngine suggestionRuleEngine;
+    private EmotionService emotionService;
+    private SuggestionCacheProperties properties;
+    private ScriptedProvider delegate;
+
+    @BeforeEach
+    void setUp() {
+        suggestionRuleEngine = new SuggestionRuleEngine(objectMapper, new DefaultResourceLoader(),
+                new SuggestionRuleProperties());
+        emotionService = mock(EmotionService.class);
+        when(emotionService.getTaxonomySnapshot()).thenReturn(EmotionTaxonomySnapshot.build(1, List.of()));
+        properties = new SuggestionCacheProperties();
+        delegate = new ScriptedProvider(new RuleBasedSuggestionProvider(suggestionRuleEngine));
+    }
+
+    @Test
+    void cachesAnswersWithoutExpiry() {
+        CachingSuggestionProvider provider = newProvider();
+
+        provider.suggest(REQUEST);
+        provider.suggest(REQUEST);
+
+        assertThat(delegate.calls).isEqualTo(1);
+        assertThat(provider.getHits()).isEqualTo(1);
+    }
+
+    @Test
+    void doesNotCacheFallbackAnswersWhenTheirTtlIsZero() {
+        properties.setFallbackTtlMs(0);
+        delegate.fallback = true;
+        CachingSuggestionProvider provider = newProvider();
+
+        provider.suggest(REQUEST);
+        delegate.fallback = false;
+        provider.suggest(REQUEST);
+        provider.suggest(REQUEST);
+
+        assertThat(delegate.calls).isEqualTo(2);
+        assertThat(provider.getHits()).isEqualTo(1);
+    }
+
+    @Test
+    void expiresFallbackAnswersAfterTheirTtl() throws Exception {
+        properties.setFallbackTtlMs(50);
+        delegate.fallback = true;
+        CachingSuggestionProvider provider = newProvider();
+
+        provider.suggest(REQUEST);
+        provider.suggest(REQUEST);
+        assertThat(delegate.calls).isEqualTo(1);
+
+        Thread.sleep(100);
+        provider.suggest(REQUEST);
+
+        assertThat(delegate.calls).isEqualTo(2);
+    }
+
+    private CachingSuggestionProvider newProvider() {
+        return new CachingSuggestionProvider(delegate, emotionService, suggestionRuleEngine, properties,
+                new SimpleMeterRegistry());
+    }
+
+    private static final class ScriptedProvider implements SuggestionProvider {
+        private final SuggestionProvider delegate;
+        private volatile boolean fallback;
+        private volatile int calls;
+
+        private ScriptedProvider(SuggestionProvider delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public String getName() {
+            return "scripted";
+        }
+
+        @Override
+        public List<ActivityTemplate> suggest(SuggestionRequest request) {
+            return suggestWithSource(request).getTemplates();
+        }
+
+        @Override
+        public synchronized SuggestionResult suggestWithSource(SuggestionRequest request) {
+            calls++;
+            List<ActivityTemplate> templates = delegate.suggest(request);
+            return fallback ? SuggestionResult.fallback(templates) : SuggestionResult.answered(templates);
+        }
+    }
+}
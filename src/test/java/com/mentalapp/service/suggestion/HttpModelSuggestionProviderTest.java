@@ -0,0 +1,209 @@
+package com.mentalapp.service.suggestion;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mentalapp.config.SuggestionModelProperties;
+import com.mentalapp.config.SuggestionRuleProperties;
+import com.mentalapp.entity.MoodEntry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The model path against {@link StubModelServer}: answers, deadlines and the
+ * circuit breaker, each falling back to the rule table
+ */
+class HttpModelSuggestionProviderTest {
+
+    private static final SuggestionRequest REQUEST = SuggestionRequest.builder()
+            .energyLevel(2)
+            .primaryCategory("sad")
+            .environment(MoodEntry.Environment.ALONE)
+            .stressMentioned(true)
+            .build();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private RuleBasedSuggestionProvider rules;
+    private CountingProvider fallback;
+    private StubModelServer stub;
+    private SuggestionModelProperties properties;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        rules = new RuleBasedSuggestionProvider(new SuggestionRuleEngine(objectMapper, new DefaultResourceLoader(),
+                new SuggestionRuleProperties()));
+        fallback = new CountingProvider(rules);
+        stub = new StubModelServer(rules, objectMapper).start();
+
+        properties = new SuggestionModelProperties();
+        properties.setEndpoint(stub.getEndpoint());
+        properties.setDeadlineMs(500);
+        properties.setHedgeDelayMs(200);
+        properties.setCircuitFailureThreshold(2);
+        properties.setCircuitOpenMs(60000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.close();
+    }
+
+    @Test
+    void usesTheModelAnswerWhenItIsInTime() {
+        HttpModelSuggestionProvider provider = new HttpModelSuggestionProvider(properties, fallback, objectMapper);
+
+        List<ActivityTemplate> templates = provider.suggest(REQUEST);
+
+        assertThat(templates).extracting(ActivityTemplate::getTitle)
+                .containsExactlyElementsOf(rules.suggest(REQUEST).stream().map(ActivityTemplate::getTitle).toList());
+        assertThat(templates).allSatisfy(template -> assertThat(template.getKey()).startsWith("model:"));
+        assertThat(fallback.calls).isZero();
+    }
+
+    @Test
+    void fallsBackToRulesWhenTheDeadlinePasses() {
+        stub.latency(2000, 0);
+        HttpModelSuggestionProvider provider = new HttpModelSuggestionProvider(properties, fallback, objectMapper);
+
+        long start = System.nanoTime();
+        List<ActivityTemplate> templates = provider.suggest(REQUEST);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(templates).isEqualTo(rules.suggest(REQUEST));
+        assertThat(fallback.calls).isEqualTo(1);
+        assertThat(elapsedMs).isLessThan(1500);
+    }
+
+    @Test
+    void opensTheCircuitAfterRepeatedFailures() {
+        stub.failureRate(1.0);
+        HttpModelSuggestionProvider provider = new HttpModelSuggestionProvider(properties, fallback, objectMapper);
+
+        provider.suggest(REQUEST);
+        provider.suggest(REQUEST);
+        int requestsBeforeOpen = stub.getRequestCount();
+        List<ActivityTemplate> templates = provider.suggest(REQUEST);
+
+        assertThat(provider.getCircuitState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(templates).isEqualTo(rules.suggest(REQUEST));
+        assertThat(fallback.calls).isEqualTo(3);
+        assertThat(stub.getRequestCount()).isEqualTo(requestsBeforeOpen);
+    }
+
+    @Test
+    void recoversWhenTheHalfOpenCircuitMeetsSaturatedPermits() throws Exception {
+        properties.setMaxConcurrency(1);
+        properties.setCircuitFailureThreshold(1);
+        properties.setCircuitOpenMs(100);
+        stub.failureRate(1.0);
+        HoldingProvider holding = new HoldingProvider(rules);
+        HttpModelSuggestionProvider provider = new HttpModelSuggestionProvider(properties, holding, objectMapper);
+
+        // The failing call opens the circuit, then keeps the only permit while it falls back
+        CompletableFuture<List<ActivityTemplate>> holder = CompletableFuture.supplyAsync(() -> provider.suggest(REQUEST));
+        assertThat(holding.entered.await(5, TimeUnit.SECONDS)).isTrue();
+        Thread.sleep(150);
+        assertThat(provider.getCircuitState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+
+        int requestsWhileSaturated = stub.getRequestCount();
+        assertThat(provider.suggest(REQUEST)).isEqualTo(rules.suggest(REQUEST));
+        assertThat(stub.getRequestCount()).isEqualTo(requestsWhileSaturated);
+
+        holding.release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+        stub.failureRate(0.0);
+
+        List<ActivityTemplate> templates = provider.suggest(REQUEST);
+
+        assertThat(templates).allSatisfy(template -> assertThat(template.getKey()).startsWith("model:"));
+        assertThat(provider.getCircuitState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void anInterruptedTrialHandsTheTrialBack() throws Exception {
+        properties.setCircuitFailureThreshold(1);
+        properties.setCircuitOpenMs(100);
+        properties.setDeadlineMs(5000);
+        stub.failureRate(1.0);
+        HttpModelSuggestionProvider provider = new HttpModelSuggestionProvider(properties, fallback, objectMapper);
+        provider.suggest(REQUEST);
+        Thread.sleep(150);
+        assertThat(provider.getCircuitState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+
+        stub.failureRate(0.0);
+        stub.latency(3000, 0);
+        int requestsBeforeTrial = stub.getRequestCount();
+        Thread trial = new Thread(() -> provider.suggest(REQUEST));
+        trial.start();
+        while (stub.getRequestCount() == requestsBeforeTrial) {
+            Thread.sleep(10);
+        }
+        trial.interrupt();
+        trial.join(5000);
+        assertThat(trial.isAlive()).isFalse();
+
+        stub.latency(0, 0);
+        List<ActivityTemplate> templates = provider.suggest(REQUEST);
+
+        assertThat(templates).allSatisfy(template -> assertThat(template.getKey()).startsWith("model:"));
+        assertThat(provider.getCircuitState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    /** Falls back to the rules, holding the first caller until released */
+    private static final class HoldingProvider implements SuggestionProvider {
+        private final SuggestionProvider delegate;
+        private final AtomicBoolean first = new AtomicBoolean(true);
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        private HoldingProvider(SuggestionProvider delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public String getName() {
+            return delegate.getName();
+        }
+
+        @Override
+        public List<ActivityTemplate> suggest(SuggestionRequest request) {
+            if (first.getAndSet(false)) {
+                entered.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return delegate.suggest(request);
+        }
+    }
+
+    private static final class CountingProvider implements SuggestionProvider {
+        private final SuggestionProvider delegate;
+        private volatile int calls;
+
+        private CountingProvider(SuggestionProvider delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public String getName() {
+            return delegate.getName();
+        }
+
+        @Override
+        public synchronized List<ActivityTemplate> suggest(SuggestionRequest request) {
+            calls++;
+            return delegate.suggest(request);
+        }
+    }
+}
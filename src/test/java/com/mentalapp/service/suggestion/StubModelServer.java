@@ -0,0 +1,162 @@
+package com.mentalapp.service.suggestion;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mentalapp.entity.MoodEntry;
+import com.mentalapp.entity.SuggestionStrategy;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process stand-in for the suggestion model, so the model path (deadlines,
+ * hedging, circuit breaker, fallback) can be exercised and load-tested
+ * offline. Answers with the rule table's suggestions after a configurable
+ * latency and fails a configurable fraction of requests.
+ */
+@Slf4j
+public class StubModelServer implements AutoCloseable {
+
+    private final RuleBasedSuggestionProvider ruleBasedSuggestionProvider;
+    private final ObjectMapper objectMapper;
+    private final AtomicInteger requests = new AtomicInteger();
+
+    private volatile long latencyMs;
+    private volatile long latencyJitterMs;
+    private volatile double failureRate;
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public StubModelServer(RuleBasedSuggestionProvider ruleBasedSuggestionProvider, ObjectMapper objectMapper) {
+        this.ruleBasedSuggestionProvider = ruleBasedSuggestionProvider;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Listen on an ephemeral localhost port
+     */
+    public StubModelServer start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        executor = Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+        server.createContext("/v1/suggestions", this::handle);
+        server.start();
+        log.info("Stub suggestion model listening on port {}", getPort());
+        return this;
+    }
+
+    @Override
+    public void close() {
+        if (server != null) {
+            server.stop(0);
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public String getEndpoint() {
+        return "http://localhost:" + getPort() + "/v1/suggestions";
+    }
+
+    public int getRequestCount() {
+        return requests.get();
+    }
+
+    public StubModelServer latency(long latencyMs, long latencyJitterMs) {
+        this.latencyMs = latencyMs;
+        this.latencyJitterMs = latencyJitterMs;
+        return this;
+    }
+
+    /**
+     * Fraction of requests (0.0 - 1.0) answered with a 503
+     */
+    public StubModelServer failureRate(double failureRate) {
+        this.failureRate = failureRate;
+        return this;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            SuggestionRequest request;
+            try (InputStream in = exchange.getRequestBody()) {
+                request = toRequest(objectMapper.readValue(in, Map.class));
+            }
+
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long jitter = latencyJitterMs > 0 ? random.nextLong(latencyJitterMs + 1) : 0;
+            Thread.sleep(latencyMs + jitter);
+
+            if (random.nextDouble() < failureRate) {
+                exchange.sendResponseHeaders(503, -1);
+                return;
+            }
+
+            List<ActivityTemplate> templates = ruleBasedSuggestionProvider.suggest(request);
+            List<HttpModelSuggestionProvider.ModelSuggestion> suggestions = new ArrayList<>(templates.size());
+            for (SuggestionStrategy strategy : SuggestionStrategy.values()) {
+                ActivityTemplate template = templates.get(strategy.ordinal());
+                HttpModelSuggestionProvider.ModelSuggestion suggestion = new HttpModelSuggestionProvider.ModelSuggestion();
+                suggestion.setStrategy(strategy);
+                suggestion.setTitle(template.getTitle());
+                suggestion.setDescription(template.getDescription());
+                suggestion.setCategory(template.getCategory());
+                suggestion.setDurationMinutes(template.getDurationMinutes());
+                suggestion.setDifficulty(template.getDifficulty());
+                suggestions.add(suggestion);
+            }
+            HttpModelSuggestionProvider.ModelResponse response = new HttpModelSuggestionProvider.ModelResponse();
+            response.setSuggestions(suggestions);
+
+            byte[] body = objectMapper.writeValueAsBytes(response);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.warn("Stub suggestion model failed to answer", e);
+            exchange.sendResponseHeaders(500, -1);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private SuggestionRequest toRequest(Map<?, ?> body) {
+        Object energy = body.get("energyLevel");
+        Object category = body.get("primaryCategory");
+        Object environment = body.get("environment");
+        return SuggestionRequest.builder()
+                .energyLevel(energy instanceof Number ? ((Number) energy).intValue() : 3)
+                .primaryCategory(category != null ? category.toString() : null)
+                .environment(environment != null
+                        ? MoodEntry.Environment.valueOf(environment.toString())
+                        : null)
+                .stressMentioned(Boolean.TRUE.equals(body.get("stressMentioned")))
+                .build();
+    }
+}
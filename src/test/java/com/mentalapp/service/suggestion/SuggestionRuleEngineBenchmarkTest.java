@@ -0,0 +1,139 @@
+package com.mentalapp.service.suggestion;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mentalapp.MicroBenchmark;
+import com.mentalapp.config.SuggestionRuleProperties;
+import com.mentalapp.entity.MoodEntry;
+import com.mentalapp.entity.SuggestionStrategy;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Rule evaluation cost per mood entry: the compiled decision table against
+ * scanning the same rules on every request, which is what the table
+ * replaces. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class SuggestionRuleEngineBenchmarkTest {
+
+    private static final int WARMUP = 200_000;
+    private static final int OPERATIONS = 2_000_000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SuggestionRuleEngine engine = new SuggestionRuleEngine(objectMapper, new DefaultResourceLoader(),
+            new SuggestionRuleProperties());
+    private final RuleBasedSuggestionProvider provider = new RuleBasedSuggestionProvider(engine);
+    private final List<SuggestionRequest> requests = requests();
+
+    private int next;
+    private int sink;
+
+    @Test
+    void compiledTableAgainstScanningTheRules() throws Exception {
+        ScannedRules scanned = new ScannedRules(readRuleFile());
+        for (SuggestionRequest request : requests) {
+            assertThat(scanned.evaluate(request)).isEqualTo(evaluate(request));
+        }
+
+        MicroBenchmark.Result table = MicroBenchmark.measure("compiled table", WARMUP, OPERATIONS,
+                () -> sink += evaluate(nextRequest()).size());
+        MicroBenchmark.Result scan = MicroBenchmark.measure("rule scan per request", WARMUP, OPERATIONS,
+                () -> sink += scanned.evaluate(nextRequest()).size());
+        MicroBenchmark.measure("rule-based provider", WARMUP, OPERATIONS,
+                () -> sink += provider.suggest(nextRequest()).size());
+
+        assertThat(sink).isPositive();
+        // Evaluation is an index computation; the templates are shared
+        assertThat(table.bytesPerOp()).isLessThan(16);
+        assertThat(table.nanosPerOp()).isLessThan(scan.nanosPerOp());
+    }
+
+    private List<ActivityTemplate> evaluate(SuggestionRequest request) {
+        return engine.evaluate(request.getEnergyLevel(), request.getPrimaryCategory(), request.getEnvironment(),
+                request.isStressMentioned());
+    }
+
+    private SuggestionRequest nextRequest() {
+        next = (next + 1) % requests.size();
+        return requests.get(next);
+    }
+
+    private SuggestionRuleEngine.RuleFile readRuleFile() throws Exception {
+        try (InputStream in = new ClassPathResource("suggestion-rules.json").getInputStream()) {
+            return objectMapper.readValue(in, SuggestionRuleEngine.RuleFile.class);
+        }
+    }
+
+    private static List<SuggestionRequest> requests() {
+        List<SuggestionRequest> requests = new ArrayList<>();
+        String[] categories = {"joy", "sadness", "anger", "fear", "anxiety", "neutral", "surprise", null};
+        for (int energy = SuggestionRuleSet.MIN_ENERGY; energy <= SuggestionRuleSet.MAX_ENERGY; energy++) {
+            for (String category : categories) {
+                for (MoodEntry.Environment environment : MoodEntry.Environment.values()) {
+                    for (boolean stress : new boolean[] {false, true}) {
+                        requests.add(SuggestionRequest.builder()
+                                .energyLevel(energy)
+                                .primaryCategory(category)
+                                .environment(environment)
+                                .stressMentioned(stress)
+                                .build());
+                    }
+                }
+            }
+        }
+        return requests;
+    }
+
+    /** First matching rule per strategy, looked up on every call */
+    private static final class ScannedRules {
+
+        private final List<SuggestionRuleEngine.RuleDefinition> rules;
+        private final Map<String, ActivityTemplate> templates = new HashMap<>();
+
+        ScannedRules(SuggestionRuleEngine.RuleFile file) {
+            this.rules = file.getRules();
+            file.getTemplates().forEach((key, definition) -> templates.put(key, ActivityTemplate.builder()
+                    .key(key)
+                    .title(definition.getTitle())
+                    .description(definition.getDescription())
+                    .category(definition.getCategory())
+                    .durationMinutes(definition.getDurationMinutes())
+                    .difficulty(definition.getDifficulty())
+                    .build()));
+        }
+
+        List<ActivityTemplate> evaluate(SuggestionRequest request) {
+            SuggestionStrategy[] strategies = SuggestionStrategy.values();
+            List<ActivityTemplate> resolved = new ArrayList<>(strategies.length);
+            for (SuggestionStrategy strategy : strategies) {
+                for (SuggestionRuleEngine.RuleDefinition rule : rules) {
+                    if (rule.getStrategy() == strategy && matches(rule, request)) {
+                        resolved.add(templates.get(rule.getTemplate()));
+                        break;
+                    }
+                }
+            }
+            return resolved;
+        }
+
+        private static boolean matches(SuggestionRuleEngine.RuleDefinition rule, SuggestionRequest request) {
+            int energy = Math.max(SuggestionRuleSet.MIN_ENERGY,
+                    Math.min(SuggestionRuleSet.MAX_ENERGY, request.getEnergyLevel()));
+            return (rule.getEnergy().isEmpty() || rule.getEnergy().contains(energy))
+                    && (rule.getCategories().isEmpty() || (request.getPrimaryCategory() != null
+                            && rule.getCategories().contains(request.getPrimaryCategory())))
+                    && (rule.getEnvironments().isEmpty() || rule.getEnvironments().contains(request.getEnvironment()))
+                    && (rule.getStressMentioned() == null || rule.getStressMentioned() == request.isStressMentioned());
+        }
+    }
+}